@@ -99,6 +99,16 @@ public class StudioError extends RuntimeException {
                                              "id '%s'.", resourceName, id));
     }
 
+    /**
+     * Service unavailable studio error.
+     *
+     * @param message the message
+     * @return the studio error
+     */
+    public static StudioError serviceUnavailable(String message) {
+        return new StudioError(503, 0, message);
+    }
+
     /**
      * Bad gateway studio error.
      *
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.baidu.hugegraph.studio.common.serializer;
+
+import java.util.Map;
+
+import javax.ws.rs.ext.ContextResolver;
+import javax.ws.rs.ext.Provider;
+
+import com.baidu.hugegraph.studio.connections.model.Connection;
+import com.baidu.hugegraph.studio.notebook.model.Notebook;
+import com.baidu.hugegraph.studio.notebook.model.NotebookCell;
+import com.baidu.hugegraph.studio.notebook.model.Result;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.module.afterburner.AfterburnerModule;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * The object mapper shared by Jersey and the repositories, so that the
+ * serializers are built once and cached in one place.
+ *
+ * The readers and writers of the entities persisted or returned often are
+ * built in advance, and the accessors of beans are generated as bytecode by
+ * the afterburner module rather than called by reflection.
+ */
+@Provider
+public class ObjectMapperProvider implements ContextResolver<ObjectMapper> {
+
+    private static final ObjectMapper MAPPER = newMapper(new JsonFactory());
+
+    private static final Class<?>[] ENTITIES = new Class<?>[]{
+            Notebook.class, NotebookCell.class, Connection.class, Result.class
+    };
+    private static final Map<Class<?>, ObjectReader> READERS;
+    private static final Map<Class<?>, ObjectWriter> WRITERS;
+
+    static {
+        ImmutableMap.Builder<Class<?>, ObjectReader> readers =
+                ImmutableMap.builder();
+        ImmutableMap.Builder<Class<?>, ObjectWriter> writers =
+                ImmutableMap.builder();
+        for (Class<?> entity : ENTITIES) {
+            readers.put(entity, MAPPER.readerFor(entity));
+            writers.put(entity, MAPPER.writerFor(entity));
+        }
+        READERS = readers.build();
+        WRITERS = writers.build();
+    }
+
+    @Override
+    public ObjectMapper getContext(Class<?> type) {
+        return MAPPER;
+    }
+
+    /**
+     * Gets the shared mapper, which mustn't be reconfigured.
+     */
+    public static ObjectMapper mapper() {
+        return MAPPER;
+    }
+
+    /**
+     * Gets the reader built in advance for the entity.
+     */
+    public static ObjectReader reader(Class<?> entity) {
+        ObjectReader reader = READERS.get(entity);
+        Preconditions.checkArgument(reader != null,
+                                    "No reader for %s", entity);
+        return reader;
+    }
+
+    /**
+     * Gets the writer built in advance for the entity.
+     */
+    public static ObjectWriter writer(Class<?> entity) {
+        ObjectWriter writer = WRITERS.get(entity);
+        Preconditions.checkArgument(writer != null,
+                                    "No writer for %s", entity);
+        return writer;
+    }
+
+    /**
+     * Create a mapper configured like the shared one, for the callers who
+     * need another format or their own mixins.
+     */
+    public static ObjectMapper newMapper(JsonFactory factory) {
+        ObjectMapper mapper = new ObjectMapper(factory);
+        mapper.registerModule(new AfterburnerModule());
+        return mapper;
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.baidu.hugegraph.studio.common.serializer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.ext.MessageBodyWriter;
+import javax.ws.rs.ext.Provider;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+/**
+ * Write the responses as smile, the binary json of jackson, when a client
+ * asks for it by the header "Accept: application/x-jackson-smile". It saves
+ * the cost of encoding and decoding large results as text, the content is
+ * the same as the json response.
+ */
+@Provider
+@Produces(SmileProvider.APPLICATION_SMILE)
+public class SmileProvider implements MessageBodyWriter<Object> {
+
+    public static final String APPLICATION_SMILE =
+                               "application/x-jackson-smile";
+    public static final MediaType APPLICATION_SMILE_TYPE =
+                                  MediaType.valueOf(APPLICATION_SMILE);
+
+    private final ObjectMapper mapper;
+
+    public SmileProvider() {
+        SmileFactory factory = new SmileFactory();
+        // The entity stream is closed by the container
+        factory.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        this.mapper = ObjectMapperProvider.newMapper(factory);
+    }
+
+    @Override
+    public boolean isWriteable(Class<?> type, Type genericType,
+                               Annotation[] annotations, MediaType mediaType) {
+        return APPLICATION_SMILE_TYPE.isCompatible(mediaType);
+    }
+
+    @Override
+    public long getSize(Object value, Class<?> type, Type genericType,
+                        Annotation[] annotations, MediaType mediaType) {
+        return -1L;
+    }
+
+    @Override
+    public void writeTo(Object value, Class<?> type, Type genericType,
+                        Annotation[] annotations, MediaType mediaType,
+                        MultivaluedMap<String, Object> httpHeaders,
+                        OutputStream entityStream) throws IOException {
+        this.mapper.writeValue(entityStream, value);
+    }
+}
@@ -23,6 +23,7 @@ import com.baidu.hugegraph.config.ConfigListOption;
 import com.baidu.hugegraph.config.ConfigOption;
 import com.baidu.hugegraph.config.OptionHolder;
 
+import static com.baidu.hugegraph.config.OptionChecker.allowValues;
 import static com.baidu.hugegraph.config.OptionChecker.disallowEmpty;
 import static com.baidu.hugegraph.config.OptionChecker.positiveInt;
 import static com.baidu.hugegraph.config.OptionChecker.rangeInt;
@@ -88,6 +89,17 @@ public class StudioApiOptions extends OptionHolder {
                     "notebooks"
             );
 
+    /**
+     * The constant DATA_RESULTS_DIR.
+     */
+    public static final ConfigOption<String> DATA_RESULTS_DIR =
+            new ConfigOption<>(
+                    "userData.resultsDirectory",
+                    "The cell results directory of HugeStudio's user data.",
+                    disallowEmpty(),
+                    "results"
+            );
+
     public static final ConfigOption<Integer> SHOW_LIMIT_DATA =
             new ConfigOption<>(
                     "show.limit.data",
@@ -96,6 +108,15 @@ public class StudioApiOptions extends OptionHolder {
                     100
             );
 
+    public static final ConfigOption<Integer> SHOW_LIMIT_DATA_BYTES =
+            new ConfigOption<>(
+                    "show.limit.data.bytes",
+                    "The max bytes of the data serialized as json, the " +
+                    "data beyond it is truncated, 0 means unlimited.",
+                    rangeInt(0, Integer.MAX_VALUE),
+                    8 * 1024 * 1024
+            );
+
     public static final ConfigOption<Integer> SHOW_LIMIT_EDGE_TOTAL =
             new ConfigOption<>(
                     "show.limit.edge.total",
@@ -112,6 +133,162 @@ public class StudioApiOptions extends OptionHolder {
                     50
             );
 
+    public static final ConfigOption<Integer> CLIENT_POOL_MAX_SIZE =
+            new ConfigOption<>(
+                    "client.pool.max.size",
+                    "The max number of HugeClient kept for connections.",
+                    rangeInt(1, 1000),
+                    16
+            );
+
+    public static final ConfigOption<Integer> CLIENT_POOL_IDLE_TIMEOUT =
+            new ConfigOption<>(
+                    "client.pool.idle.timeout",
+                    "The seconds an unused HugeClient is kept in the pool.",
+                    positiveInt(),
+                    600
+            );
+
+    public static final ConfigOption<Integer> SCHEMA_CACHE_TTL =
+            new ConfigOption<>(
+                    "schema.cache.ttl",
+                    "The seconds the schema of a connection is cached.",
+                    positiveInt(),
+                    30
+            );
+
+    public static final ConfigOption<String> WRITE_DURABILITY =
+            new ConfigOption<>(
+                    "notebook.write.durability",
+                    "What is synced to disk before a notebook write returns, " +
+                    "one of none, fsync-file and fsync-dir.",
+                    allowValues("none", "fsync-file", "fsync-dir"),
+                    "none"
+            );
+
+    public static final ConfigOption<Integer> WRITE_GROUP_COMMIT_DELAY =
+            new ConfigOption<>(
+                    "notebook.write.group.commit.delay",
+                    "The milliseconds to gather the notebook writes which " +
+                    "share the directory sync, 0 means no group commit, " +
+                    "it's ignored unless the durability is fsync-dir.",
+                    rangeInt(0, 1000),
+                    0
+            );
+
+    public static final ConfigOption<String> STORE_COMPRESSION =
+            new ConfigOption<>(
+                    "notebook.store.compression",
+                    "The compression of the notebook and result files " +
+                    "written, one of none and deflate.",
+                    allowValues("none", "deflate"),
+                    "none"
+            );
+
+    public static final ConfigOption<String> STORE_CODEC =
+            new ConfigOption<>(
+                    "notebook.store.codec",
+                    "The encoding of the notebook and result files written, " +
+                    "one of json and smile.",
+                    allowValues("json", "smile"),
+                    "json"
+            );
+
+    public static final ConfigOption<Integer> CONNECTION_CACHE_MAX_SIZE =
+            new ConfigOption<>(
+                    "connection.cache.max.size",
+                    "The max number of connections cached in memory.",
+                    rangeInt(1, 10000),
+                    256
+            );
+
+    public static final ConfigOption<Integer> EXECUTE_STREAM_THREADS =
+            new ConfigOption<>(
+                    "execute.stream.threads",
+                    "The number of threads to push the streaming results.",
+                    rangeInt(1, 100),
+                    8
+            );
+
+    public static final ConfigOption<Integer> EXECUTE_JOB_THREADS =
+            new ConfigOption<>(
+                    "execute.job.threads",
+                    "The number of threads to execute the cells submitted " +
+                    "as jobs.",
+                    rangeInt(1, 100),
+                    8
+            );
+
+    public static final ConfigOption<Integer> EXECUTE_JOB_QUEUE_SIZE =
+            new ConfigOption<>(
+                    "execute.job.queue.size",
+                    "The max number of jobs waiting for a thread.",
+                    rangeInt(1, 10000),
+                    64
+            );
+
+    public static final ConfigOption<Integer> EXECUTE_JOB_CONCURRENCY =
+            new ConfigOption<>(
+                    "execute.job.connection.concurrency",
+                    "The max number of unfinished jobs of a connection.",
+                    rangeInt(1, 1000),
+                    4
+            );
+
+    public static final ConfigOption<Integer> GREMLIN_BATCH_THREADS =
+            new ConfigOption<>(
+                    "gremlin.batch.threads",
+                    "The number of threads to execute the batch queries of " +
+                    "vertices and edges.",
+                    rangeInt(1, 100),
+                    8
+            );
+
+    public static final ConfigOption<Integer> GREMLIN_BATCH_CONCURRENCY =
+            new ConfigOption<>(
+                    "gremlin.batch.connection.concurrency",
+                    "The max number of batch queries executed concurrently " +
+                    "for a connection.",
+                    rangeInt(1, 100),
+                    4
+            );
+
+    public static final ConfigOption<Integer> GREMLIN_RESULT_CACHE_MAX_SIZE =
+            new ConfigOption<>(
+                    "gremlin.result.cache.max.size",
+                    "The max number of read-only gremlin results cached in " +
+                    "memory, 0 to disable the cache.",
+                    rangeInt(0, 100000),
+                    0
+            );
+
+    public static final ConfigOption<Integer> GREMLIN_RESULT_CACHE_TTL =
+            new ConfigOption<>(
+                    "gremlin.result.cache.ttl",
+                    "The seconds a gremlin result is kept in the cache.",
+                    positiveInt(),
+                    60
+            );
+
+    public static final ConfigOption<String> GREMLIN_OPTIMIZER =
+            new ConfigOption<>(
+                    "gremlin.optimizer",
+                    "The way to add limit to gremlin, 'rule' to match the " +
+                    "suffixes of code, 'ast' to parse the syntax tree of " +
+                    "code.",
+                    allowValues("rule", "ast"),
+                    "rule"
+            );
+
+    public static final ConfigOption<Integer> GREMLIN_OPTIMIZER_REPEAT_TIMES =
+            new ConfigOption<>(
+                    "gremlin.optimizer.repeat.times",
+                    "The max times a repeat() without times() or until() " +
+                    "is looped, used by the 'ast' optimizer.",
+                    rangeInt(1, 1000),
+                    10
+            );
+
 
     /**
      * The constant GREMLIN_EXCLUDE_LIMIT.
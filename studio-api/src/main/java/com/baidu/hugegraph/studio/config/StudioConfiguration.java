@@ -28,7 +28,7 @@ import org.apache.commons.lang3.StringUtils;
 
 import java.io.IOException;
 import java.net.URL;
-import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -78,6 +78,11 @@ public class StudioConfiguration {
         return String.format("%s/%s", getBaseUserDataDirectory(), dir);
     }
 
+    public String getResultsDirectory() {
+        String dir = this.config.get(StudioApiOptions.DATA_RESULTS_DIR);
+        return String.format("%s/%s", getBaseUserDataDirectory(), dir);
+    }
+
     public String getBaseUserDataDirectory() {
         String userDataDir = this.config.get(StudioApiOptions.DATA_BASE_DIR);
         if (StringUtils.isBlank(userDataDir)) {
@@ -91,6 +96,10 @@ public class StudioConfiguration {
     }
 
 
+    public int getLimitDataBytes() {
+        return this.config.get(StudioApiOptions.SHOW_LIMIT_DATA_BYTES);
+    }
+
     public int getLimitEdgeTotal() {
         return this.config.get(StudioApiOptions.SHOW_LIMIT_EDGE_TOTAL);
     }
@@ -99,6 +108,79 @@ public class StudioConfiguration {
         return this.config.get(StudioApiOptions.SHOW_LIMIT_EDGE_INCREMENT);
     }
 
+    public int getClientPoolMaxSize() {
+        return this.config.get(StudioApiOptions.CLIENT_POOL_MAX_SIZE);
+    }
+
+    public int getClientPoolIdleTimeout() {
+        return this.config.get(StudioApiOptions.CLIENT_POOL_IDLE_TIMEOUT);
+    }
+
+    public int getSchemaCacheTtl() {
+        return this.config.get(StudioApiOptions.SCHEMA_CACHE_TTL);
+    }
+
+    public String getWriteDurability() {
+        return this.config.get(StudioApiOptions.WRITE_DURABILITY);
+    }
+
+    public int getWriteGroupCommitDelay() {
+        return this.config.get(StudioApiOptions.WRITE_GROUP_COMMIT_DELAY);
+    }
+
+    public String getStoreCompression() {
+        return this.config.get(StudioApiOptions.STORE_COMPRESSION);
+    }
+
+    public String getStoreCodec() {
+        return this.config.get(StudioApiOptions.STORE_CODEC);
+    }
+
+    public int getConnectionCacheMaxSize() {
+        return this.config.get(StudioApiOptions.CONNECTION_CACHE_MAX_SIZE);
+    }
+
+    public int getStreamThreads() {
+        return this.config.get(StudioApiOptions.EXECUTE_STREAM_THREADS);
+    }
+
+    public int getJobThreads() {
+        return this.config.get(StudioApiOptions.EXECUTE_JOB_THREADS);
+    }
+
+    public int getJobQueueSize() {
+        return this.config.get(StudioApiOptions.EXECUTE_JOB_QUEUE_SIZE);
+    }
+
+    public int getJobConnectionConcurrency() {
+        return this.config.get(StudioApiOptions.EXECUTE_JOB_CONCURRENCY);
+    }
+
+    public int getGremlinBatchThreads() {
+        return this.config.get(StudioApiOptions.GREMLIN_BATCH_THREADS);
+    }
+
+    public int getGremlinBatchConcurrency() {
+        return this.config.get(StudioApiOptions.GREMLIN_BATCH_CONCURRENCY);
+    }
+
+    public int getGremlinResultCacheMaxSize() {
+        return this.config.get(StudioApiOptions.GREMLIN_RESULT_CACHE_MAX_SIZE);
+    }
+
+    public int getGremlinResultCacheTtl() {
+        return this.config.get(StudioApiOptions.GREMLIN_RESULT_CACHE_TTL);
+    }
+
+    public String getGremlinOptimizer() {
+        return this.config.get(StudioApiOptions.GREMLIN_OPTIMIZER);
+    }
+
+    public int getGremlinRepeatTimes() {
+        return this.config.get(
+               StudioApiOptions.GREMLIN_OPTIMIZER_REPEAT_TIMES);
+    }
+
     public List<Map<String, String>> getVertexVisColor() {
         String colors = this.config.get(StudioApiOptions.VERTEX_VIS_COLOR);
         try {
@@ -113,9 +195,10 @@ public class StudioConfiguration {
                 this.config.get(StudioApiOptions.GREMLINS_APPEND_LIMIT_SUFFIX);
 
         if (gremlins == null || gremlins.size() == 0) {
-            return new HashSet<>();
+            return new LinkedHashSet<>();
         }
-        Set<String> gremlinSet = new HashSet<>(gremlins);
+        // Keep the configured order, the rules are matched in it
+        Set<String> gremlinSet = new LinkedHashSet<>(gremlins);
         for (String g : gremlins) {
             gremlinSet.add(g);
         }
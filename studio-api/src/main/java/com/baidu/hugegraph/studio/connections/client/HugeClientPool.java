@@ -0,0 +1,165 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.baidu.hugegraph.studio.connections.client;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.springframework.stereotype.Repository;
+
+import com.baidu.hugegraph.driver.HugeClient;
+import com.baidu.hugegraph.studio.config.StudioConfiguration;
+import com.baidu.hugegraph.studio.connections.model.Connection;
+import com.baidu.hugegraph.studio.metrics.StudioMetrics;
+import com.baidu.hugegraph.util.Log;
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Gauge;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalCause;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+/**
+ * Keep the HugeClient of each connection to avoid paying the connection
+ * setup and version handshake on every request.
+ */
+@Repository("hugeClientPool")
+public class HugeClientPool {
+
+    private static final Logger LOG = Log.logger(HugeClientPool.class);
+
+    private final Cache<String, Entry> clients;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+
+    public HugeClientPool() {
+        StudioConfiguration conf = StudioConfiguration.getInstance();
+        this.hits = StudioMetrics.counter(HugeClientPool.class, "hits");
+        this.misses = StudioMetrics.counter(HugeClientPool.class, "misses");
+        this.evictions = StudioMetrics.counter(HugeClientPool.class,
+                                               "evictions");
+        this.clients = CacheBuilder.newBuilder()
+                                   .maximumSize(conf.getClientPoolMaxSize())
+                                   .expireAfterAccess(
+                                    conf.getClientPoolIdleTimeout(),
+                                    TimeUnit.SECONDS)
+                                   .<String, Entry>removalListener(n -> {
+                                       if (n.getCause() == RemovalCause.SIZE ||
+                                           n.getCause() == RemovalCause.EXPIRED) {
+                                           this.evictions.inc();
+                                           LOG.debug("Evict HugeClient of " +
+                                                     "connection: {}",
+                                                     n.getKey());
+                                       }
+                                   })
+                                   .build();
+        StudioMetrics.gauge((Gauge<Long>) this.clients::size,
+                            HugeClientPool.class, "size");
+    }
+
+    /**
+     * Gets the HugeClient of the connection, a new one will be created if
+     * the connection is not in the pool or its address has been changed.
+     *
+     * @param connection the connection
+     * @return the HugeClient
+     */
+    public HugeClient get(Connection connection) {
+        Preconditions.checkNotNull(connection);
+        String id = connection.getId();
+        if (StringUtils.isEmpty(id)) {
+            // The unsaved connection is never pooled
+            this.misses.inc();
+            return newClient(connection);
+        }
+
+        Entry entry = this.clients.getIfPresent(id);
+        if (entry != null && entry.matches(connection)) {
+            this.hits.inc();
+            return entry.client;
+        }
+        if (entry != null) {
+            this.clients.asMap().remove(id, entry);
+        }
+        try {
+            entry = this.clients.get(id, () -> {
+                this.misses.inc();
+                return new Entry(connection, newClient(connection));
+            });
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            throw Throwables.propagate(e.getCause());
+        }
+        return entry.client;
+    }
+
+    /**
+     * Recreate the HugeClient of the connection, the new client is kept in
+     * the pool if the connection has been saved.
+     *
+     * @param connection the connection
+     * @return the HugeClient
+     */
+    public HugeClient reconnect(Connection connection) {
+        this.invalidate(connection.getId());
+        return this.get(connection);
+    }
+
+    /**
+     * Remove the HugeClient of the connection from the pool.
+     *
+     * @param connectionId the connection id
+     */
+    public void invalidate(String connectionId) {
+        if (StringUtils.isNotEmpty(connectionId)) {
+            this.clients.invalidate(connectionId);
+        }
+    }
+
+    private static HugeClient newClient(Connection connection) {
+        LOG.debug("Create HugeClient for {}/{}",
+                  connection.getConnectionUri(), connection.getGraph());
+        return new HugeClient(connection.getConnectionUri(),
+                              connection.getGraph());
+    }
+
+    private static class Entry {
+
+        private final String uri;
+        private final String graph;
+        private final HugeClient client;
+
+        public Entry(Connection connection, HugeClient client) {
+            this.uri = connection.getConnectionUri();
+            this.graph = connection.getGraph();
+            this.client = client;
+        }
+
+        public boolean matches(Connection connection) {
+            return this.uri.equals(connection.getConnectionUri()) &&
+                   StringUtils.equals(this.graph, connection.getGraph());
+        }
+    }
+}
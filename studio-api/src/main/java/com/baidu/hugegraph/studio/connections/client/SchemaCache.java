@@ -0,0 +1,208 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.baidu.hugegraph.studio.connections.client;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Repository;
+
+import com.baidu.hugegraph.driver.HugeClient;
+import com.baidu.hugegraph.driver.SchemaManager;
+import com.baidu.hugegraph.structure.schema.EdgeLabel;
+import com.baidu.hugegraph.structure.schema.PropertyKey;
+import com.baidu.hugegraph.structure.schema.VertexLabel;
+import com.baidu.hugegraph.studio.config.StudioConfiguration;
+import com.baidu.hugegraph.studio.connections.model.Connection;
+import com.baidu.hugegraph.studio.metrics.StudioMetrics;
+import com.baidu.hugegraph.util.Log;
+import com.codahale.metrics.Counter;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+/**
+ * Keep the schema of each connection for a short time, and the styles of
+ * graph computed from it, so executing cells and expanding vertices needn't
+ * fetch the schema from server every time.
+ *
+ * The schema of a connection is refreshed once it expires, or explicitly by
+ * invalidating it after the connection or the schema is changed.
+ */
+@Repository("schemaCache")
+public class SchemaCache {
+
+    private static final Logger LOG = Log.logger(SchemaCache.class);
+
+    @Autowired
+    private HugeClientPool hugeClientPool;
+
+    private final Cache<String, Schema> schemas;
+
+    private final Counter hits;
+    private final Counter misses;
+
+    public SchemaCache() {
+        StudioConfiguration conf = StudioConfiguration.getInstance();
+        this.hits = StudioMetrics.counter(SchemaCache.class, "hits");
+        this.misses = StudioMetrics.counter(SchemaCache.class, "misses");
+        // Keep the schemas of as many connections as the pooled clients
+        this.schemas = CacheBuilder.newBuilder()
+                                   .maximumSize(conf.getClientPoolMaxSize())
+                                   .expireAfterWrite(
+                                    conf.getSchemaCacheTtl(),
+                                    TimeUnit.SECONDS)
+                                   .build();
+    }
+
+    /**
+     * Gets the schema of the connection, it's fetched from server if it's
+     * not cached or the address of connection has been changed.
+     *
+     * @param connection the connection
+     * @return the schema
+     */
+    public Schema get(Connection connection) {
+        Preconditions.checkNotNull(connection);
+        String id = connection.getId();
+        if (StringUtils.isEmpty(id)) {
+            // The unsaved connection is never cached
+            this.misses.inc();
+            return this.fetch(connection);
+        }
+
+        Schema schema = this.schemas.getIfPresent(id);
+        if (schema != null && schema.matches(connection)) {
+            this.hits.inc();
+            return schema;
+        }
+        if (schema != null) {
+            this.schemas.asMap().remove(id, schema);
+        }
+        try {
+            return this.schemas.get(id, () -> {
+                this.misses.inc();
+                return this.fetch(connection);
+            });
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            throw Throwables.propagate(e.getCause());
+        }
+    }
+
+    /**
+     * Remove the schema of the connection, it will be fetched again when
+     * it's needed.
+     *
+     * @param connectionId the connection id
+     */
+    public void invalidate(String connectionId) {
+        if (StringUtils.isNotEmpty(connectionId)) {
+            this.schemas.invalidate(connectionId);
+        }
+    }
+
+    private Schema fetch(Connection connection) {
+        LOG.debug("Fetch schema of connection: {}", connection.getId());
+        HugeClient client = this.hugeClientPool.get(connection);
+        SchemaManager schema = client.schema();
+        return new Schema(connection, schema.getPropertyKeys(),
+                          schema.getVertexLabels(), schema.getEdgeLabels());
+    }
+
+    /**
+     * The schema of a connection, the lists mustn't be modified as they're
+     * shared by all requests.
+     */
+    public static class Schema {
+
+        private final String uri;
+        private final String graph;
+        private final List<PropertyKey> propertyKeys;
+        private final List<VertexLabel> vertexLabels;
+        private final List<EdgeLabel> edgeLabels;
+        private volatile Map<String, Object> styles;
+
+        private Schema(Connection connection, List<PropertyKey> propertyKeys,
+                       List<VertexLabel> vertexLabels,
+                       List<EdgeLabel> edgeLabels) {
+            this.uri = connection.getConnectionUri();
+            this.graph = connection.getGraph();
+            this.propertyKeys = ImmutableList.copyOf(propertyKeys);
+            this.vertexLabels = ImmutableList.copyOf(vertexLabels);
+            this.edgeLabels = ImmutableList.copyOf(edgeLabels);
+        }
+
+        public List<PropertyKey> propertyKeys() {
+            return this.propertyKeys;
+        }
+
+        public List<VertexLabel> vertexLabels() {
+            return this.vertexLabels;
+        }
+
+        public List<EdgeLabel> edgeLabels() {
+            return this.edgeLabels;
+        }
+
+        /**
+         * Gets the vertex label of the name, or null if it doesn't exist.
+         */
+        public VertexLabel vertexLabel(String name) {
+            for (VertexLabel vertexLabel : this.vertexLabels) {
+                if (vertexLabel.name().equals(name)) {
+                    return vertexLabel;
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Gets the styles of graph, which are computed only once for the
+         * schema.
+         *
+         * @param builder compute the styles from the schema
+         * @return the styles
+         */
+        public Map<String, Object> styles(
+               Function<Schema, Map<String, Object>> builder) {
+            Map<String, Object> styles = this.styles;
+            if (styles == null) {
+                // Computing it twice concurrently is harmless
+                styles = builder.apply(this);
+                this.styles = styles;
+            }
+            return styles;
+        }
+
+        private boolean matches(Connection connection) {
+            return this.uri.equals(connection.getConnectionUri()) &&
+                   StringUtils.equals(this.graph, connection.getGraph());
+        }
+    }
+}
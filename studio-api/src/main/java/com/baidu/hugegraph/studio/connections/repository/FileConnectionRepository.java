@@ -22,27 +22,39 @@ package com.baidu.hugegraph.studio.connections.repository;
 import java.io.BufferedWriter;
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.springframework.stereotype.Repository;
 
+import com.baidu.hugegraph.studio.common.serializer.ObjectMapperProvider;
 import com.baidu.hugegraph.studio.config.StudioConfiguration;
 import com.baidu.hugegraph.studio.connections.model.Connection;
+import com.baidu.hugegraph.studio.metrics.StudioMetrics;
 import com.baidu.hugegraph.util.Log;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Gauge;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.google.common.base.Preconditions;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.Striped;
 
 /**
  * The type File connection repository.
@@ -55,18 +67,35 @@ public class FileConnectionRepository implements ConnectionRepository {
 
     private static final Logger LOG = Log.logger(FileConnectionRepository.class);
 
-    private final ObjectMapper mapper = new ObjectMapper();
+    private static final int LOCK_STRIPES = 64;
+
+    private final ObjectReader connectionReader =
+            ObjectMapperProvider.reader(Connection.class);
+    private final ObjectWriter connectionWriter =
+            ObjectMapperProvider.writer(Connection.class);
     private StudioConfiguration configuration;
     private String connectionsDataDirectory;
 
-    private final ReadWriteLock lock = new ReentrantReadWriteLock();
-    private final Lock readLock = lock.readLock();
-    private final Lock writeLock = lock.writeLock();
+    // Guard the file of each connection, keyed by the connection id
+    private final Striped<ReadWriteLock> locks =
+            Striped.readWriteLock(LOCK_STRIPES);
+    /*
+     * The connections read from files, which are invalidated by the writes
+     * and by the changes of files detected by the watcher.
+     * NOTE: the cached connections are shared, callers mustn't modify them.
+     */
+    private Cache<String, Connection> cache;
+    private final Counter hits;
+    private final Counter misses;
 
     /**
      * Instantiates a new File connection repository.
      */
     public FileConnectionRepository() {
+        this.hits = StudioMetrics.counter(FileConnectionRepository.class,
+                                          "cache", "hits");
+        this.misses = StudioMetrics.counter(FileConnectionRepository.class,
+                                            "cache", "misses");
         initConnectionRepository();
     }
 
@@ -81,6 +110,67 @@ public class FileConnectionRepository implements ConnectionRepository {
             dir.mkdirs();
         }
         Preconditions.checkArgument(dir.exists() && dir.isDirectory());
+
+        cache = CacheBuilder.newBuilder()
+                            .maximumSize(configuration
+                                         .getConnectionCacheMaxSize())
+                            .build();
+        StudioMetrics.gauge((Gauge<Long>) cache::size,
+                            FileConnectionRepository.class, "cache", "size");
+        watchConnectionsDirectory(dir.toPath());
+    }
+
+    /**
+     * Invalidate the cached connections whose files are changed by others,
+     * like editing or copying the files by hand.
+     */
+    private void watchConnectionsDirectory(Path dir) {
+        WatchService watcher;
+        try {
+            watcher = dir.getFileSystem().newWatchService();
+            dir.register(watcher, StandardWatchEventKinds.ENTRY_CREATE,
+                         StandardWatchEventKinds.ENTRY_MODIFY,
+                         StandardWatchEventKinds.ENTRY_DELETE);
+        } catch (IOException e) {
+            LOG.warn("Can't watch the connections directory: {}, the " +
+                     "changes of files not made by HugeStudio may be " +
+                     "invisible", dir, e);
+            return;
+        }
+        Thread thread = new Thread(() -> {
+            while (true) {
+                WatchKey key;
+                try {
+                    key = watcher.take();
+                } catch (InterruptedException | ClosedWatchServiceException e) {
+                    return;
+                }
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        cache.invalidateAll();
+                    } else {
+                        Path file = (Path) event.context();
+                        cache.invalidate(file.getFileName().toString());
+                    }
+                }
+                if (!key.reset()) {
+                    LOG.warn("Stop watching the connections directory: {}",
+                             dir);
+                    cache.invalidateAll();
+                    return;
+                }
+            }
+        }, "connections-watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private Lock readLock(String connectionId) {
+        return this.locks.get(connectionId).readLock();
+    }
+
+    private Lock writeLock(String connectionId) {
+        return this.locks.get(connectionId).writeLock();
     }
 
     private void writeConnection(Connection connection) {
@@ -89,13 +179,15 @@ public class FileConnectionRepository implements ConnectionRepository {
 
         String filePath = connectionsDataDirectory + "/" + connection.getId();
         Path path = Paths.get(filePath);
+        Lock writeLock = this.writeLock(connection.getId());
         writeLock.lock();
         try (BufferedWriter writer = Files.newBufferedWriter(path)) {
-            writer.write(mapper.writeValueAsString(connection));
+            writer.write(connectionWriter.writeValueAsString(connection));
             LOG.debug("Write connection file: {}", filePath);
         } catch (IOException e) {
             LOG.error("Can't write file: {}", filePath, e);
         }finally {
+            cache.invalidate(connection.getId());
             writeLock.unlock();
         }
     }
@@ -106,7 +198,8 @@ public class FileConnectionRepository implements ConnectionRepository {
         try {
             Files.list(Paths.get(connectionsDataDirectory))
                  .filter(Files::isRegularFile).forEach(path -> {
-                    Connection connection = getConnectionByPath(path);
+                    Connection connection =
+                            get(path.getFileName().toString());
                     if (connection != null) {
                         connections.add(connection);
                     }
@@ -148,11 +241,21 @@ public class FileConnectionRepository implements ConnectionRepository {
 
     @Override
     public Connection get(String connectionId) {
+        Connection connection = cache.getIfPresent(connectionId);
+        if (connection != null) {
+            this.hits.inc();
+            return connection;
+        }
+        this.misses.inc();
+        Lock readLock = this.readLock(connectionId);
         readLock.lock();
         try {
             String path = connectionsDataDirectory + "/" + connectionId;
-            return mapper.readValue(Files.readAllBytes(Paths.get(path)),
-                                    Connection.class);
+            connection = connectionReader.readValue(
+                         Files.readAllBytes(Paths.get(path)));
+            // Put it under the lock, so a concurrent write can't be missed
+            cache.put(connectionId, connection);
+            return connection;
         } catch (IOException e) {
             LOG.error("Can't read connection file: {}/{}" ,
                       connectionsDataDirectory, connectionId, e);
@@ -163,9 +266,10 @@ public class FileConnectionRepository implements ConnectionRepository {
     }
 
     public Connection getConnectionByPath(Path path) {
+        Lock readLock = this.readLock(path.getFileName().toString());
         readLock.lock();
         try {
-            return mapper.readValue(Files.readAllBytes(path), Connection.class);
+            return connectionReader.readValue(Files.readAllBytes(path));
         } catch (IOException e) {
             LOG.error("Failed to read connection file: {}", path, e);
         }finally {
@@ -176,6 +280,7 @@ public class FileConnectionRepository implements ConnectionRepository {
 
     @Override
     public void deleteConnection(String connectionId) {
+        Lock writeLock = this.writeLock(connectionId);
         writeLock.lock();
         try {
             FileUtils.forceDelete(FileUtils.getFile(connectionsDataDirectory,
@@ -184,6 +289,7 @@ public class FileConnectionRepository implements ConnectionRepository {
             LOG.error("Can't remove connection file: {}/{}",
                       connectionsDataDirectory, connectionId, e);
         }finally {
+            cache.invalidate(connectionId);
             writeLock.unlock();
         }
     }
@@ -36,14 +36,14 @@ import javax.ws.rs.core.Response;
 
 import org.springframework.beans.factory.annotation.Autowired;
 
-import com.baidu.hugegraph.driver.HugeClient;
 import com.baidu.hugegraph.exception.ServerException;
-import com.baidu.hugegraph.structure.schema.EdgeLabel;
-import com.baidu.hugegraph.structure.schema.PropertyKey;
-import com.baidu.hugegraph.structure.schema.VertexLabel;
+import com.baidu.hugegraph.studio.common.serializer.SmileProvider;
+import com.baidu.hugegraph.studio.connections.client.HugeClientPool;
+import com.baidu.hugegraph.studio.connections.client.SchemaCache;
 import com.baidu.hugegraph.studio.connections.model.Connection;
 import com.baidu.hugegraph.studio.connections.model.ConnectionState;
 import com.baidu.hugegraph.studio.connections.repository.ConnectionRepository;
+import com.baidu.hugegraph.studio.gremlin.GremlinResultCache;
 import com.baidu.hugegraph.studio.notebook.model.Notebook;
 import com.baidu.hugegraph.studio.notebook.repository.NotebookRepository;
 import com.google.common.base.Preconditions;
@@ -58,6 +58,12 @@ public class ConnectionService {
     private ConnectionRepository connectionRepository;
     @Autowired
     private NotebookRepository notebookRepository;
+    @Autowired
+    private HugeClientPool hugeClientPool;
+    @Autowired
+    private SchemaCache schemaCache;
+    @Autowired
+    private GremlinResultCache gremlinResultCache;
 
     /**
      * Gets connections.
@@ -65,7 +71,8 @@ public class ConnectionService {
      * @return The connections.
      */
     @GET
-    @Produces(MediaType.APPLICATION_JSON)
+    @Produces({MediaType.APPLICATION_JSON,
+               SmileProvider.APPLICATION_SMILE})
     public Response getConnections() {
         return Response.status(200)
                        .entity(connectionRepository.getConnections())
@@ -80,7 +87,8 @@ public class ConnectionService {
      */
     @GET
     @Path("{connectionId}")
-    @Produces(MediaType.APPLICATION_JSON)
+    @Produces({MediaType.APPLICATION_JSON,
+               SmileProvider.APPLICATION_SMILE})
     public Response getConnection(
             @PathParam("connectionId") String connectionId) {
         return Response.status(200)
@@ -95,7 +103,8 @@ public class ConnectionService {
      * @return The response.
      */
     @POST
-    @Produces(MediaType.APPLICATION_JSON)
+    @Produces({MediaType.APPLICATION_JSON,
+               SmileProvider.APPLICATION_SMILE})
     @Consumes(MediaType.APPLICATION_JSON)
     public Response createConnection(Connection connection) {
         connection.setLastModified(System.currentTimeMillis());
@@ -113,7 +122,8 @@ public class ConnectionService {
      */
     @DELETE
     @Path("{connectionId}")
-    @Produces(MediaType.APPLICATION_JSON)
+    @Produces({MediaType.APPLICATION_JSON,
+               SmileProvider.APPLICATION_SMILE})
     public Response deleteConnection(
             @PathParam("connectionId") String connectionId) {
         Preconditions.checkArgument(!notebookRepository.getNotebooks().stream()
@@ -122,6 +132,9 @@ public class ConnectionService {
                "The connection can't be deleted if it has " +
                "already been used by any notebook");
         connectionRepository.deleteConnection(connectionId);
+        hugeClientPool.invalidate(connectionId);
+        schemaCache.invalidate(connectionId);
+        gremlinResultCache.invalidate(connectionId);
         return Response.status(204).build();
     }
 
@@ -134,7 +147,8 @@ public class ConnectionService {
      */
     @PUT
     @Path("{connectionId}")
-    @Produces(MediaType.APPLICATION_JSON)
+    @Produces({MediaType.APPLICATION_JSON,
+               SmileProvider.APPLICATION_SMILE})
     @Consumes(MediaType.APPLICATION_JSON)
     public Response editConnection(
             @PathParam("connectionId") String connectionId,
@@ -143,6 +157,9 @@ public class ConnectionService {
                                     connectionId.equals(connection.getId()));
         connection.setLastModified(System.currentTimeMillis());
         connectionRepository.editConnection(connection);
+        hugeClientPool.invalidate(connectionId);
+        schemaCache.invalidate(connectionId);
+        gremlinResultCache.invalidate(connectionId);
         /*
          * Update the connection information of notebook according to the
          * connection.
@@ -165,15 +182,16 @@ public class ConnectionService {
      */
     @GET
     @Path("status")
-    @Produces(MediaType.APPLICATION_JSON)
+    @Produces({MediaType.APPLICATION_JSON,
+               SmileProvider.APPLICATION_SMILE})
     @Consumes(MediaType.APPLICATION_JSON)
     public Response getConnectionStatus(Connection connection) {
         Preconditions.checkNotNull(connection);
         Response response = Response.status(200).entity(ConnectionState.OPEN)
                                     .build();
         try {
-            new HugeClient(connection.getConnectionUri(),
-                           connection.getGraph());
+            // Always handshake with server, the new client is kept if valid
+            hugeClientPool.reconnect(connection);
         } catch (ServerException e) {
             response = Response.status(e.status())
                                .entity(ConnectionState.CLOSED)
@@ -190,7 +208,8 @@ public class ConnectionService {
      */
     @GET
     @Path("{connectionId}/schema")
-    @Produces(MediaType.APPLICATION_JSON)
+    @Produces({MediaType.APPLICATION_JSON,
+               SmileProvider.APPLICATION_SMILE})
     public Response getConnectionSchema(
             @PathParam("connectionId") String connectionId) {
         Preconditions.checkNotNull(connectionId);
@@ -198,15 +217,28 @@ public class ConnectionService {
         Preconditions.checkNotNull(connection);
         Preconditions.checkArgument(connection.getId().equals(connectionId));
 
-        HugeClient client = new HugeClient(connection.getConnectionUri(),
-                                           connection.getGraph());
+        SchemaCache.Schema schema = schemaCache.get(connection);
         Map<String, List> schemas = new HashMap<>();
-        List<PropertyKey> propertyKeys = client.schema().getPropertyKeys();
-        List<VertexLabel> vertexLabels = client.schema().getVertexLabels();
-        List<EdgeLabel> edgeLabels = client.schema().getEdgeLabels();
-        schemas.put("propertyKeys", propertyKeys);
-        schemas.put("vertexLabels", vertexLabels);
-        schemas.put("edgeLabels", edgeLabels);
+        schemas.put("propertyKeys", schema.propertyKeys());
+        schemas.put("vertexLabels", schema.vertexLabels());
+        schemas.put("edgeLabels", schema.edgeLabels());
         return Response.status(200).entity(schemas).build();
     }
+
+    /**
+     * Refresh the cached schema of connection, it's needed if the schema is
+     * changed by others and the change should be seen at once.
+     *
+     * @param connectionId The connection id.
+     * @return The connection schema fetched from server.
+     */
+    @PUT
+    @Path("{connectionId}/schema/refresh")
+    @Produces({MediaType.APPLICATION_JSON,
+               SmileProvider.APPLICATION_SMILE})
+    public Response refreshConnectionSchema(
+            @PathParam("connectionId") String connectionId) {
+        schemaCache.invalidate(connectionId);
+        return this.getConnectionSchema(connectionId);
+    }
 }
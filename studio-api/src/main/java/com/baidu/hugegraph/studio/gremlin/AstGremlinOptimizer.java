@@ -0,0 +1,612 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.baidu.hugegraph.studio.gremlin;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.codehaus.groovy.ast.ModuleNode;
+import org.codehaus.groovy.ast.expr.ArgumentListExpression;
+import org.codehaus.groovy.ast.expr.BinaryExpression;
+import org.codehaus.groovy.ast.expr.ConstantExpression;
+import org.codehaus.groovy.ast.expr.Expression;
+import org.codehaus.groovy.ast.expr.MethodCallExpression;
+import org.codehaus.groovy.ast.expr.VariableExpression;
+import org.codehaus.groovy.ast.stmt.BlockStatement;
+import org.codehaus.groovy.ast.stmt.ExpressionStatement;
+import org.codehaus.groovy.ast.stmt.ReturnStatement;
+import org.codehaus.groovy.ast.stmt.Statement;
+import org.codehaus.groovy.control.CompilerConfiguration;
+import org.codehaus.groovy.control.ErrorCollector;
+import org.codehaus.groovy.control.SourceUnit;
+import org.slf4j.Logger;
+
+import com.baidu.hugegraph.studio.config.StudioConfiguration;
+import com.baidu.hugegraph.util.Log;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableSet;
+
+import groovy.lang.GroovyClassLoader;
+
+/**
+ * Add limit to gremlin code by the syntax tree of the script, which is parsed
+ * by the groovy parser without compiling it.
+ *
+ * The limit is added to the last statement if it's a traversal, which starts
+ * from 'g.V()', 'g.E()' or 'g.inject()' or a variable assigned with such one
+ * in the former statements, no matter what steps it ends with:
+ *
+ * - the limit is added before the terminal 'toList()' or 'toSet()', and the
+ *   traversals ending with other terminals like 'next()' are kept
+ * - the traversals reduced by the steps like 'count()' or 'fold()' and not
+ *   unfolded after them are kept, so are the traversals which mutate graph
+ * - the limit at the end of traversal is kept if it's not greater than the
+ *   desired one, otherwise it's lowered to the desired one
+ * - the 'repeat()' without 'times()' or 'until()' is looped at most the
+ *   configured times, which also bounds the paths of it
+ *
+ * The code which can't be parsed is handed over to the fallback optimizer.
+ */
+public class AstGremlinOptimizer implements GremlinOptimizer {
+
+    private static final Logger LOG = Log.logger(AstGremlinOptimizer.class);
+
+    private static final String SOURCE = "g";
+    private static final Set<String> SOURCE_STEPS = ImmutableSet.of(
+            "V", "E", "inject");
+    private static final Set<String> LIST_TERMINALS = ImmutableSet.of(
+            "toList", "toSet", "toBulkSet");
+    private static final Set<String> TERMINALS = ImmutableSet.of(
+            "next", "tryNext", "hasNext", "iterate", "explain", "toStream",
+            "forEachRemaining", "fill");
+    private static final Set<String> REDUCING_STEPS = ImmutableSet.of(
+            "count", "sum", "max", "min", "mean", "fold", "group",
+            "groupCount", "tree", "cap");
+    private static final Set<String> MUTATING_STEPS = ImmutableSet.of(
+            "addV", "addE", "property", "drop", "sideEffect");
+    private static final Set<String> LOOP_MODULATORS = ImmutableSet.of(
+            "times", "until", "emit");
+
+    private static final GroovyClassLoader LOADER = new GroovyClassLoader(
+            AstGremlinOptimizer.class.getClassLoader());
+
+    private final GremlinOptimizer fallback;
+    private final int limitData;
+    private final int repeatTimes;
+
+    public AstGremlinOptimizer(GremlinOptimizer fallback) {
+        this(fallback, StudioConfiguration.getInstance().getLimitData(),
+             StudioConfiguration.getInstance().getGremlinRepeatTimes());
+    }
+
+    public AstGremlinOptimizer(GremlinOptimizer fallback, int limitData,
+                               int repeatTimes) {
+        Preconditions.checkArgument(repeatTimes > 0,
+                                    "The repeat times must be > 0");
+        this.fallback = fallback;
+        this.limitData = limitData;
+        this.repeatTimes = repeatTimes;
+    }
+
+    @Override
+    public String limitOptimize(String code, int limit) {
+        Traversal traversal;
+        try {
+            traversal = this.parse(code);
+        } catch (RuntimeException e) {
+            LOG.debug("Can't parse gremlin, fallback to rules: {}", code, e);
+            return this.fallback.limitOptimize(code, limit);
+        }
+        if (traversal == null) {
+            return code;
+        }
+
+        List<Edit> edits = traversal.capRepeats(this.repeatTimes);
+        Step last = traversal.lastStep();
+        if (last != null && last.is("limit") && last.args.size() == 1) {
+            Long value = last.longArg(0);
+            if (value == null) {
+                edits.add(traversal.append(".limit(" + limit + ")"));
+            } else if (value < 0L || value > limit) {
+                edits.add(last.replaceArgs(String.valueOf(limit)));
+            }
+        } else if (last != null && last.is("range") && last.args.size() == 2) {
+            Long low = last.longArg(0);
+            Long high = last.longArg(1);
+            if (low == null || high == null) {
+                edits.add(traversal.append(".limit(" + limit + ")"));
+            } else if (high < 0L || high - low > limit) {
+                edits.add(last.replaceArgs(low + ", " + (low + limit)));
+            }
+        } else {
+            edits.add(traversal.append(".limit(" + limit + ")"));
+        }
+        return Edit.apply(code, edits);
+    }
+
+    @Override
+    public String limitOptimize(String code) {
+        return this.limitOptimize(code, this.limitData);
+    }
+
+    @Override
+    public String rangeOptimize(String code, long low, long high) {
+        Preconditions.checkArgument(low >= 0 && low < high,
+                                    "Invalid range [%s, %s)", low, high);
+        Traversal traversal;
+        try {
+            traversal = this.parse(code);
+        } catch (RuntimeException e) {
+            LOG.debug("Can't parse gremlin, fallback to rules: {}", code, e);
+            return this.fallback.rangeOptimize(code, low, high);
+        }
+        if (traversal == null) {
+            return null;
+        }
+
+        List<Edit> edits = traversal.capRepeats(this.repeatTimes);
+        edits.add(traversal.append(".range(" + low + ", " + high + ")"));
+        return Edit.apply(code, edits);
+    }
+
+    /**
+     * Parse the last statement of code into the traversal to be limited.
+     *
+     * @return null if the last statement isn't such a traversal
+     * @throws RuntimeException if the code can't be parsed
+     */
+    private Traversal parse(String code) {
+        BlockStatement block = parseModule(code).getStatementBlock();
+        List<Statement> statements = block.getStatements();
+        if (statements.isEmpty()) {
+            return null;
+        }
+
+        // The variables assigned with traversals before the last statement
+        Set<String> variables = new HashSet<>();
+        for (Statement statement : statements.subList(
+                                   0, statements.size() - 1)) {
+            if (!(statement instanceof ExpressionStatement)) {
+                continue;
+            }
+            Expression expr = ((ExpressionStatement) statement)
+                              .getExpression();
+            if (!(expr instanceof BinaryExpression)) {
+                continue;
+            }
+            BinaryExpression assign = (BinaryExpression) expr;
+            if (!"=".equals(assign.getOperation().getText()) ||
+                !(assign.getLeftExpression() instanceof VariableExpression)) {
+                continue;
+            }
+            String name = assign.getLeftExpression().getText();
+            List<MethodCallExpression> calls = new ArrayList<>();
+            if (isTraversal(assign.getRightExpression(), variables, calls)) {
+                variables.add(name);
+            } else {
+                variables.remove(name);
+            }
+        }
+
+        Statement last = statements.get(statements.size() - 1);
+        Expression expr;
+        if (last instanceof ExpressionStatement) {
+            expr = ((ExpressionStatement) last).getExpression();
+        } else if (last instanceof ReturnStatement) {
+            expr = ((ReturnStatement) last).getExpression();
+        } else {
+            return null;
+        }
+        List<MethodCallExpression> calls = new ArrayList<>();
+        if (!isTraversal(expr, variables, calls)) {
+            return null;
+        }
+
+        Source source = new Source(code);
+        List<Step> steps = new ArrayList<>(calls.size());
+        for (MethodCallExpression call : calls) {
+            steps.add(source.step(call));
+        }
+        int end;
+        if (steps.isEmpty()) {
+            VariableExpression variable = (VariableExpression) expr;
+            end = source.offset(variable.getLineNumber(),
+                                variable.getColumnNumber()) +
+                  variable.getName().length();
+            Preconditions.checkState(code.startsWith(variable.getName(),
+                                     end - variable.getName().length()),
+                                     "Unexpected position of '%s'",
+                                     variable.getName());
+        } else {
+            end = steps.get(steps.size() - 1).end;
+        }
+        source.checkTail(end);
+
+        Step terminal = steps.isEmpty() ? null : steps.get(steps.size() - 1);
+        if (terminal != null && LIST_TERMINALS.contains(terminal.name)) {
+            // Limit the traversal before collecting it
+            steps.remove(steps.size() - 1);
+            end = terminal.start;
+        }
+        boolean bounded = false;
+        for (Step step : steps) {
+            if (TERMINALS.contains(step.name) ||
+                MUTATING_STEPS.contains(step.name)) {
+                return null;
+            }
+            if (REDUCING_STEPS.contains(step.name)) {
+                bounded = true;
+            } else if (step.is("unfold")) {
+                bounded = false;
+            }
+        }
+        if (bounded) {
+            return null;
+        }
+        return new Traversal(steps, end);
+    }
+
+    /**
+     * Parse the code into the syntax tree without compiling it.
+     *
+     * @throws RuntimeException if the code can't be parsed
+     */
+    static ModuleNode parseModule(String code) {
+        // Only parse the source, which is lighter than a compilation unit
+        CompilerConfiguration config = CompilerConfiguration.DEFAULT;
+        SourceUnit unit = new SourceUnit("Script.groovy", code, config,
+                                         LOADER, new ErrorCollector(config));
+        unit.parse();
+        unit.completePhase();
+        unit.nextPhase();
+        unit.convert();
+        return unit.getAST();
+    }
+
+    /**
+     * Whether the expression is a traversal from the source 'g' or from one
+     * of the variables, the calls of it are collected in order.
+     */
+    private static boolean isTraversal(Expression expr, Set<String> variables,
+                                       List<MethodCallExpression> calls) {
+        while (expr instanceof MethodCallExpression) {
+            MethodCallExpression call = (MethodCallExpression) expr;
+            if (call.isImplicitThis() || call.isSafe() ||
+                call.isSpreadSafe() || call.getMethodAsString() == null ||
+                !(call.getArguments() instanceof ArgumentListExpression)) {
+                return false;
+            }
+            calls.add(0, call);
+            expr = call.getObjectExpression();
+        }
+        if (!(expr instanceof VariableExpression)) {
+            return false;
+        }
+        String root = ((VariableExpression) expr).getName();
+        if (variables.contains(root)) {
+            return true;
+        }
+        if (!SOURCE.equals(root)) {
+            return false;
+        }
+        // The source steps like 'withSack()' are followed by 'V()'
+        for (MethodCallExpression call : calls) {
+            String name = call.getMethodAsString();
+            if (!name.startsWith("with")) {
+                return SOURCE_STEPS.contains(name);
+            }
+        }
+        return false;
+    }
+
+    private static final class Traversal {
+
+        private final List<Step> steps;
+        private final int end;
+
+        public Traversal(List<Step> steps, int end) {
+            this.steps = steps;
+            this.end = end;
+        }
+
+        public Step lastStep() {
+            if (this.steps.isEmpty()) {
+                return null;
+            }
+            return this.steps.get(this.steps.size() - 1);
+        }
+
+        public Edit append(String text) {
+            return new Edit(this.end, this.end, text);
+        }
+
+        /**
+         * Add 'times()' after the 'repeat()' steps which aren't modulated
+         * by 'times()' or 'until()' before or after them.
+         */
+        public List<Edit> capRepeats(int times) {
+            List<Edit> edits = new ArrayList<>();
+            for (int i = 0; i < this.steps.size(); i++) {
+                Step step = this.steps.get(i);
+                if (!step.is("repeat")) {
+                    continue;
+                }
+                boolean bounded = false;
+                for (int j = i - 1; j >= 0 && this.isModulator(j); j--) {
+                    bounded |= !this.steps.get(j).is("emit");
+                }
+                for (int j = i + 1; j < this.steps.size() &&
+                                    this.isModulator(j); j++) {
+                    bounded |= !this.steps.get(j).is("emit");
+                }
+                if (!bounded) {
+                    edits.add(new Edit(step.end, step.end,
+                                       ".times(" + times + ")"));
+                }
+            }
+            return edits;
+        }
+
+        private boolean isModulator(int index) {
+            return LOOP_MODULATORS.contains(this.steps.get(index).name);
+        }
+    }
+
+    private static final class Step {
+
+        private final String name;
+        private final List<Expression> args;
+        // The offsets of the dot before the step and of the end of the step
+        private final int start;
+        private final int end;
+        // The offsets of '(' and ')' of the arguments, or -1 if omitted
+        private final int argsOpen;
+        private final int argsClose;
+
+        public Step(String name, List<Expression> args, int start, int end,
+                    int argsOpen, int argsClose) {
+            this.name = name;
+            this.args = args;
+            this.start = start;
+            this.end = end;
+            this.argsOpen = argsOpen;
+            this.argsClose = argsClose;
+        }
+
+        public boolean is(String name) {
+            return this.name.equals(name);
+        }
+
+        public Long longArg(int index) {
+            Expression arg = this.args.get(index);
+            if (!(arg instanceof ConstantExpression)) {
+                return null;
+            }
+            Object value = ((ConstantExpression) arg).getValue();
+            if (value instanceof Integer || value instanceof Long) {
+                return ((Number) value).longValue();
+            }
+            return null;
+        }
+
+        public Edit replaceArgs(String text) {
+            Preconditions.checkState(this.argsOpen >= 0,
+                                     "No arguments of '%s'", this.name);
+            return new Edit(this.argsOpen + 1, this.argsClose, text);
+        }
+    }
+
+    /**
+     * Locate the steps in the source code, the positions of the groovy
+     * syntax tree are lines and columns starting from 1, and only the
+     * positions of step names are exact, so the arguments are scanned.
+     */
+    private static final class Source {
+
+        private final String code;
+        private final List<Integer> lines;
+
+        public Source(String code) {
+            this.code = code;
+            this.lines = new ArrayList<>();
+            this.lines.add(0);
+            for (int i = 0; i < code.length(); i++) {
+                char c = code.charAt(i);
+                if (c == '\r' && i + 1 < code.length() &&
+                    code.charAt(i + 1) == '\n') {
+                    i++;
+                }
+                if (c == '\r' || c == '\n') {
+                    this.lines.add(i + 1);
+                }
+            }
+        }
+
+        public int offset(int line, int column) {
+            Preconditions.checkState(line >= 1 && line <= this.lines.size() &&
+                                     column >= 1, "Invalid position %s:%s",
+                                     line, column);
+            return this.lines.get(line - 1) + column - 1;
+        }
+
+        public Step step(MethodCallExpression call) {
+            Expression method = call.getMethod();
+            int nameStart = this.offset(method.getLineNumber(),
+                                        method.getColumnNumber());
+            int nameEnd = this.offset(method.getLastLineNumber(),
+                                      method.getLastColumnNumber());
+            String name = call.getMethodAsString();
+            Preconditions.checkState(nameEnd <= this.code.length() &&
+                                     this.code.substring(nameStart, nameEnd)
+                                              .contains(name),
+                                     "Unexpected position of '%s'", name);
+            int start = this.code.lastIndexOf('.', nameStart);
+            Preconditions.checkState(start >= 0 && this.isBlank(
+                                     start + 1, nameStart),
+                                     "No dot before '%s'", name);
+
+            int argsOpen = -1;
+            int argsClose = -1;
+            int end = this.skipBlank(nameEnd);
+            if (end < this.code.length() && this.code.charAt(end) == '(') {
+                argsOpen = end;
+                end = this.skipGroup(end, '(', ')');
+                argsClose = end - 1;
+                end = this.skipBlank(end);
+            }
+            // The closure argument can follow the arguments in parentheses
+            if (end < this.code.length() && this.code.charAt(end) == '{') {
+                end = this.skipGroup(end, '{', '}');
+            } else if (argsOpen < 0) {
+                throw new IllegalStateException(String.format(
+                          "No arguments of '%s'", name));
+            } else {
+                end = argsClose + 1;
+            }
+
+            List<Expression> args = ((ArgumentListExpression)
+                                     call.getArguments()).getExpressions();
+            for (Expression arg : args) {
+                if (arg.getLastLineNumber() > 0) {
+                    Preconditions.checkState(this.offset(
+                                             arg.getLastLineNumber(),
+                                             arg.getLastColumnNumber()) <= end,
+                                             "Unexpected arguments of '%s'",
+                                             name);
+                }
+            }
+            return new Step(name, args, start, end, argsOpen, argsClose);
+        }
+
+        /**
+         * Check nothing but blanks, comments and semicolons after the end.
+         */
+        public void checkTail(int end) {
+            int i = this.skipBlank(end);
+            while (i < this.code.length() && this.code.charAt(i) == ';') {
+                i = this.skipBlank(i + 1);
+            }
+            Preconditions.checkState(i == this.code.length(),
+                                     "Unexpected code after offset %s", end);
+        }
+
+        private boolean isBlank(int start, int end) {
+            return this.skipBlank(start) >= end;
+        }
+
+        private int skipBlank(int i) {
+            String code = this.code;
+            while (i < code.length()) {
+                char c = code.charAt(i);
+                if (Character.isWhitespace(c)) {
+                    i++;
+                } else if (code.startsWith("//", i)) {
+                    int end = code.indexOf('\n', i);
+                    i = end < 0 ? code.length() : end + 1;
+                } else if (code.startsWith("/*", i)) {
+                    int end = code.indexOf("*/", i + 2);
+                    Preconditions.checkState(end >= 0, "Unclosed comment");
+                    i = end + 2;
+                } else {
+                    break;
+                }
+            }
+            return i;
+        }
+
+        /**
+         * Skip the group from the open char to the matched close char, the
+         * strings and comments in it are skipped as a whole.
+         */
+        private int skipGroup(int i, char open, char close) {
+            String code = this.code;
+            int depth = 0;
+            while (i < code.length()) {
+                char c = code.charAt(i);
+                if (c == '\'' || c == '"') {
+                    i = this.skipString(i);
+                    continue;
+                }
+                if (code.startsWith("//", i) || code.startsWith("/*", i)) {
+                    i = this.skipBlank(i);
+                    continue;
+                }
+                if (c == open) {
+                    depth++;
+                } else if (c == close && --depth == 0) {
+                    return i + 1;
+                }
+                i++;
+            }
+            throw new IllegalStateException(String.format(
+                      "Unclosed '%s' in gremlin", open));
+        }
+
+        private int skipString(int i) {
+            String code = this.code;
+            char quote = code.charAt(i);
+            String delimiter = String.valueOf(quote);
+            String triple = delimiter + quote + quote;
+            if (code.startsWith(triple, i)) {
+                delimiter = triple;
+            }
+            i += delimiter.length();
+            while (i < code.length()) {
+                if (code.charAt(i) == '\\') {
+                    i += 2;
+                } else if (code.startsWith(delimiter, i)) {
+                    return i + delimiter.length();
+                } else {
+                    i++;
+                }
+            }
+            throw new IllegalStateException("Unclosed string in gremlin");
+        }
+    }
+
+    private static final class Edit {
+
+        private final int start;
+        private final int end;
+        private final String text;
+
+        public Edit(int start, int end, String text) {
+            this.start = start;
+            this.end = end;
+            this.text = text;
+        }
+
+        /**
+         * Apply the edits which don't overlap each other to the code.
+         */
+        public static String apply(String code, List<Edit> edits) {
+            edits.sort((e1, e2) -> Integer.compare(e1.start, e2.start));
+            StringBuilder builder = new StringBuilder(code.length() + 32);
+            int copied = 0;
+            for (Edit edit : edits) {
+                builder.append(code, copied, edit.start).append(edit.text);
+                copied = edit.end;
+            }
+            return builder.append(code, copied, code.length()).toString();
+        }
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.baidu.hugegraph.studio.gremlin;
+
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Repository;
+
+import com.baidu.hugegraph.studio.config.StudioConfiguration;
+
+/**
+ * The gremlin optimizer selected by the option 'gremlin.optimizer'.
+ */
+@Primary
+@Repository("gremlinOptimizer")
+public class ConfiguredGremlinOptimizer implements GremlinOptimizer {
+
+    private final GremlinOptimizer optimizer;
+
+    public ConfiguredGremlinOptimizer() {
+        StudioConfiguration configuration = StudioConfiguration.getInstance();
+        GremlinOptimizer rule = new RuleGremlinOptimizer();
+        if ("ast".equals(configuration.getGremlinOptimizer())) {
+            this.optimizer = new AstGremlinOptimizer(rule);
+        } else {
+            this.optimizer = rule;
+        }
+    }
+
+    @Override
+    public String limitOptimize(String code, int limit) {
+        return this.optimizer.limitOptimize(code, limit);
+    }
+
+    @Override
+    public String limitOptimize(String code) {
+        return this.optimizer.limitOptimize(code);
+    }
+
+    @Override
+    public String rangeOptimize(String code, long low, long high) {
+        return this.optimizer.rangeOptimize(code, low, high);
+    }
+}
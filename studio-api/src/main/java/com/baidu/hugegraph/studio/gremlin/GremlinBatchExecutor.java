@@ -0,0 +1,153 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.baidu.hugegraph.studio.gremlin;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
+
+import org.springframework.stereotype.Repository;
+
+import com.baidu.hugegraph.studio.config.StudioConfiguration;
+import com.google.common.base.Throwables;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Execute the batches of gremlin queries concurrently, the number of
+ * threads is bounded, and so is the number of in-flight batches of each
+ * connection.
+ */
+@Repository("gremlinBatchExecutor")
+public class GremlinBatchExecutor {
+
+    private final ThreadPoolExecutor executor;
+    private final int connectionConcurrency;
+    private final ConcurrentMap<String, Semaphore> permits;
+
+    public GremlinBatchExecutor() {
+        StudioConfiguration conf = StudioConfiguration.getInstance();
+        int threads = conf.getGremlinBatchThreads();
+        this.executor = new ThreadPoolExecutor(
+                threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(threads * 4),
+                new ThreadFactoryBuilder().setNameFormat("gremlin-batch-%d")
+                                          .setDaemon(true).build(),
+                // Run in the request thread if all threads are busy
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        this.connectionConcurrency = conf.getGremlinBatchConcurrency();
+        this.permits = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Execute the tasks of a connection and merge their results in the
+     * order of tasks, no matter which one finishes first. The remaining
+     * tasks will be cancelled once the merger returns false.
+     *
+     * @param connectionId the connection the tasks are sent to
+     * @param tasks the tasks
+     * @param merger merge a result, return false if no more is needed
+     */
+    public <T> void execute(String connectionId, List<Callable<T>> tasks,
+                            Predicate<T> merger) {
+        Semaphore permits = this.permits.computeIfAbsent(
+                            String.valueOf(connectionId),
+                            k -> new Semaphore(this.connectionConcurrency));
+        List<Future<T>> futures = new ArrayList<>(tasks.size());
+        int merged = 0;
+        try {
+            for (Callable<T> task : tasks) {
+                /*
+                 * Merge the finished results while waiting for a permit,
+                 * it might be unnecessary to submit the remaining tasks.
+                 */
+                while (!permits.tryAcquire()) {
+                    if (merged == futures.size()) {
+                        permits.acquireUninterruptibly();
+                        break;
+                    }
+                    if (!merger.test(result(futures.get(merged++)))) {
+                        return;
+                    }
+                }
+                futures.add(this.submit(task, permits));
+            }
+            while (merged < futures.size()) {
+                if (!merger.test(result(futures.get(merged++)))) {
+                    return;
+                }
+            }
+        } finally {
+            for (int i = merged; i < futures.size(); i++) {
+                futures.get(i).cancel(true);
+            }
+        }
+    }
+
+    /**
+     * Submit a task holding a permit, the permit is released once the task
+     * returns, even if it's cancelled, since the gremlin request can't be
+     * aborted. It's released on done if the task never runs.
+     */
+    private <T> Future<T> submit(Callable<T> task, Semaphore permits) {
+        AtomicBoolean claimed = new AtomicBoolean();
+        FutureTask<T> future = new FutureTask<T>(() -> {
+            if (!claimed.compareAndSet(false, true)) {
+                return null;
+            }
+            try {
+                return task.call();
+            } finally {
+                permits.release();
+            }
+        }) {
+            @Override
+            protected void done() {
+                if (claimed.compareAndSet(false, true)) {
+                    permits.release();
+                }
+            }
+        };
+        this.executor.execute(future);
+        return future;
+    }
+
+    private static <T> T result(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for " +
+                                            "gremlin batch", e);
+        } catch (ExecutionException e) {
+            throw Throwables.propagate(e.getCause());
+        }
+    }
+}
@@ -40,4 +40,15 @@ public interface GremlinOptimizer {
      * @return the code added limit rule
      */
     String limitOptimize(String code);
+
+    /**
+     * Add range rules for the code to fetch a page of the results.
+     *
+     * @param code
+     * @param low  the offset of the first result, inclusive
+     * @param high the offset of the last result, exclusive
+     * @return the code added range rule, null if the results of the code
+     *         can't be paged
+     */
+    String rangeOptimize(String code, long low, long high);
 }
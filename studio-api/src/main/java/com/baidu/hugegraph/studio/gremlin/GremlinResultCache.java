@@ -0,0 +1,295 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.baidu.hugegraph.studio.gremlin;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import org.codehaus.groovy.ast.ClassCodeVisitorSupport;
+import org.codehaus.groovy.ast.ClassNode;
+import org.codehaus.groovy.ast.ModuleNode;
+import org.codehaus.groovy.ast.expr.MethodCallExpression;
+import org.codehaus.groovy.ast.expr.MethodPointerExpression;
+import org.codehaus.groovy.ast.expr.PropertyExpression;
+import org.codehaus.groovy.ast.expr.StaticMethodCallExpression;
+import org.codehaus.groovy.ast.expr.VariableExpression;
+import org.codehaus.groovy.control.SourceUnit;
+import org.springframework.stereotype.Repository;
+
+import com.baidu.hugegraph.studio.config.StudioConfiguration;
+import com.baidu.hugegraph.studio.connections.model.Connection;
+import com.baidu.hugegraph.studio.metrics.StudioMetrics;
+import com.baidu.hugegraph.studio.notebook.model.Result;
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Gauge;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Sets;
+
+/**
+ * Cache the results of read-only gremlin queries, keyed by the connection,
+ * the graph and the normalized gremlin, so re-running a cell needn't query
+ * the server and expand the vertices and edges again.
+ *
+ * The cache is disabled if the max size is 0. A query which might change
+ * the graph is never cached, and it invalidates the cached results of its
+ * graph, the results changed by others expire after the ttl. Whether a query
+ * might change the graph is decided by the steps and methods called in its
+ * syntax tree, so the string literals like has('type', 'graph') don't count.
+ */
+@Repository("gremlinResultCache")
+public class GremlinResultCache {
+
+    // The steps and methods which might change the graph or the schema
+    private static final Set<String> WRITE_STEPS = ImmutableSet.of(
+            "addV", "addE", "addVertex", "addEdge", "property", "drop",
+            "remove", "schema", "tx", "commit", "rollback", "io",
+            "sideEffect");
+    // The variables of the graph, which can be changed in any way
+    private static final Set<String> GRAPH_VARIABLES = ImmutableSet.of(
+            "graph", "hugegraph");
+    private static final Pattern WRITE_WORDS = Pattern.compile(
+            "\\b(" + String.join("|", Sets.union(WRITE_STEPS,
+                                                 GRAPH_VARIABLES)) +
+            ")\\b");
+    private static final Pattern LITERALS = Pattern.compile(
+            "'(?:[^'\\\\]|\\\\.)*'|\"(?:[^\"\\\\]|\\\\.)*\"");
+    private static final Pattern SPACES = Pattern.compile("\\s+");
+    private static final Pattern SPACES_AROUND = Pattern.compile(
+            "\\s*([.,()\\[\\]])\\s*");
+
+    private final Cache<List<String>, Result> cache;
+    private final Counter hits;
+    private final Counter misses;
+
+    public GremlinResultCache() {
+        this(StudioConfiguration.getInstance().getGremlinResultCacheMaxSize(),
+             StudioConfiguration.getInstance().getGremlinResultCacheTtl());
+    }
+
+    public GremlinResultCache(int maxSize, long ttl) {
+        if (maxSize > 0) {
+            this.cache = CacheBuilder.newBuilder()
+                                     .maximumSize(maxSize)
+                                     .expireAfterWrite(ttl, TimeUnit.SECONDS)
+                                     .build();
+            StudioMetrics.gauge((Gauge<Long>) this.cache::size,
+                                GremlinResultCache.class, "size");
+        } else {
+            this.cache = null;
+        }
+        this.hits = StudioMetrics.counter(GremlinResultCache.class, "hits");
+        this.misses = StudioMetrics.counter(GremlinResultCache.class,
+                                            "misses");
+    }
+
+    /**
+     * Whether the gremlin only reads the graph, it's conservative so a
+     * read-only gremlin might be considered not.
+     */
+    public static boolean readOnly(String gremlin) {
+        ModuleNode module;
+        try {
+            module = AstGremlinOptimizer.parseModule(gremlin);
+        } catch (RuntimeException e) {
+            // Match the words out of the string literals
+            String code = LITERALS.matcher(gremlin).replaceAll("''");
+            return !WRITE_WORDS.matcher(code).find();
+        }
+        WriteFinder finder = new WriteFinder();
+        for (ClassNode clazz : module.getClasses()) {
+            finder.visitClass(clazz);
+        }
+        return !finder.found;
+    }
+
+    /**
+     * Whether the result of the gremlin can be cached.
+     */
+    public boolean cacheable(String gremlin) {
+        return this.cache != null && readOnly(gremlin);
+    }
+
+    /**
+     * Fill the result with the cached result of the gremlin.
+     *
+     * @param connection the connection the gremlin is executed on
+     * @param gremlin    the gremlin
+     * @param result     the result to fill
+     * @return false if the result of gremlin isn't cached
+     */
+    public boolean load(Connection connection, String gremlin, Result result) {
+        if (this.cache == null) {
+            return false;
+        }
+        Result cached = this.cache.getIfPresent(key(connection, gremlin));
+        if (cached == null) {
+            this.misses.inc();
+            return false;
+        }
+        this.hits.inc();
+        copy(cached, result);
+        result.setCached(true);
+        return true;
+    }
+
+    /**
+     * Cache the result of the gremlin, the result is copied so the caller
+     * can still change it.
+     */
+    public void put(Connection connection, String gremlin, Result result) {
+        if (this.cache == null) {
+            return;
+        }
+        this.cache.put(key(connection, gremlin), copy(result, new Result()));
+    }
+
+    /**
+     * Invalidate the cached results of the graph of the connection.
+     */
+    public void invalidate(Connection connection) {
+        if (this.cache == null) {
+            return;
+        }
+        List<String> prefix = key(connection, "").subList(0, 2);
+        this.cache.asMap().keySet()
+                  .removeIf(key -> key.subList(0, 2).equals(prefix));
+    }
+
+    /**
+     * Invalidate the cached results of all the graphs of the connection.
+     */
+    public void invalidate(String connectionId) {
+        if (this.cache == null) {
+            return;
+        }
+        this.cache.asMap().keySet()
+                  .removeIf(key -> key.get(0).equals(connectionId));
+    }
+
+    private static List<String> key(Connection connection, String gremlin) {
+        return Arrays.asList(connection.getId(), connection.getGraph(),
+                             normalize(gremlin));
+    }
+
+    /**
+     * Remove the whitespaces around the dots, commas and brackets and
+     * collapse the others, except the ones in string literals, so the same
+     * query formatted differently hits the same result.
+     */
+    static String normalize(String gremlin) {
+        StringBuilder sb = new StringBuilder(gremlin.length());
+        char quote = 0;
+        int start = 0;
+        for (int i = 0; i < gremlin.length(); i++) {
+            char c = gremlin.charAt(i);
+            if (quote == 0) {
+                if (c == '\'' || c == '"') {
+                    sb.append(collapse(gremlin.substring(start, i)));
+                    quote = c;
+                    start = i;
+                }
+            } else if (c == '\\') {
+                // Skip the escaped char
+                i++;
+            } else if (c == quote) {
+                sb.append(gremlin, start, i + 1);
+                quote = 0;
+                start = i + 1;
+            }
+        }
+        String rest = gremlin.substring(start);
+        sb.append(quote == 0 ? collapse(rest) : rest);
+        return sb.toString().trim();
+    }
+
+    private static String collapse(String code) {
+        code = SPACES_AROUND.matcher(code).replaceAll("$1");
+        return SPACES.matcher(code).replaceAll(" ");
+    }
+
+    private static Result copy(Result from, Result to) {
+        to.setType(from.getType());
+        to.setData(from.getData() == null ?
+                   null : new ArrayList<>(from.getData()));
+        to.setGraphVertices(from.getGraph().getVertices());
+        to.setGraphEdges(from.getGraph().getEdges());
+        to.setStyles(from.getGraph().getStyles());
+        to.setShowNum(from.getShowNum());
+        to.setTruncated(from.isTruncated());
+        to.setMessage(from.getMessage());
+        return to;
+    }
+
+    /**
+     * Find the calls of write steps and the uses of graph variables in the
+     * script, including its methods, closures and classes.
+     */
+    private static class WriteFinder extends ClassCodeVisitorSupport {
+
+        private boolean found = false;
+
+        @Override
+        protected SourceUnit getSourceUnit() {
+            return null;
+        }
+
+        @Override
+        public void visitMethodCallExpression(MethodCallExpression call) {
+            // The method name might be dynamic like g."$name"()
+            String name = call.getMethodAsString();
+            this.found |= name == null || WRITE_STEPS.contains(name);
+            super.visitMethodCallExpression(call);
+        }
+
+        @Override
+        public void visitStaticMethodCallExpression(
+                    StaticMethodCallExpression call) {
+            this.found |= WRITE_STEPS.contains(call.getMethod());
+            super.visitStaticMethodCallExpression(call);
+        }
+
+        @Override
+        public void visitMethodPointerExpression(
+                    MethodPointerExpression pointer) {
+            String name = pointer.getMethodName().getText();
+            this.found |= WRITE_STEPS.contains(name);
+            super.visitMethodPointerExpression(pointer);
+        }
+
+        @Override
+        public void visitPropertyExpression(PropertyExpression property) {
+            String name = property.getPropertyAsString();
+            this.found |= name == null || WRITE_STEPS.contains(name);
+            super.visitPropertyExpression(property);
+        }
+
+        @Override
+        public void visitVariableExpression(VariableExpression variable) {
+            this.found |= GRAPH_VARIABLES.contains(variable.getName());
+            super.visitVariableExpression(variable);
+        }
+    }
+}
@@ -19,101 +19,75 @@
 
 package com.baidu.hugegraph.studio.gremlin;
 
-import com.baidu.hugegraph.studio.config.StudioConfiguration;
-
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Set;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 
 import org.springframework.stereotype.Repository;
 
+import com.baidu.hugegraph.studio.config.StudioConfiguration;
+import com.google.common.base.Preconditions;
+
 /**
  * Add some rules for gremlin code.
+ *
+ * The suffix rules are compiled once into matchers which check the tail of
+ * code backwards, so the cost of matching is independent of the length of
+ * code except for the string argument, which is found by one backward scan.
+ * A suffix rule is like '.name()', '.name(STR)' or '.name(NUM)':
+ *
+ * ()    the code ends with the suffix
+ * (NUM) the argument is digits
+ * (STR) the argument starts with '.name(' and a quote and ends with the
+ *       same quote and ')', anything can be in between
+ *
+ * Like the '$' of regex, a line terminator at the end of code is ignored.
  */
 @Repository("ruleGremlinOptimizer")
 public class RuleGremlinOptimizer implements GremlinOptimizer {
 
+    private static final String STR = "STR";
+    private static final String NUM = "NUM";
+
     private StudioConfiguration configuration;
-    private Map<String, Pattern> suffixPatterns;
+    private List<SuffixRule> suffixRules;
 
     public RuleGremlinOptimizer() {
+        this(StudioConfiguration.getInstance().getAppendLimitSuffixes());
+    }
+
+    public RuleGremlinOptimizer(Collection<String> suffixes) {
         configuration = StudioConfiguration.getInstance();
-        suffixPatterns = transformSuffixToRegExpPattern(
-                         configuration.getAppendLimitSuffixes());
+        suffixRules = compileSuffixRules(suffixes);
     }
 
-    private Map<String, Pattern> transformSuffixToRegExpPattern(
-            Set<String> suffixes) {
-        Map<String, Pattern> suffixPatterns = new HashMap<>();
+    private static List<SuffixRule> compileSuffixRules(
+            Collection<String> suffixes) {
+        List<SuffixRule> rules = new ArrayList<>();
         for (String suffix : suffixes) {
-            suffix = suffix.replaceAll("\\.", "\\\\.");
-            if (suffix.indexOf("(STR)") > -1) {
-                String regExpSuffix = transformSTRWithSingleQuotes(suffix);
-                suffixPatterns.put(regExpSuffix, Pattern.compile(regExpSuffix));
-                regExpSuffix = transformSTRWithDoubleQuotes(suffix);
-                suffixPatterns.put(regExpSuffix, Pattern.compile(regExpSuffix));
+            if (suffix.indexOf("(" + STR + ")") > -1) {
+                int index = suffix.indexOf(STR);
+                String head = suffix.substring(0, index);
+                String tail = suffix.substring(index + STR.length());
+                rules.add(new StringSuffixRule(head, '\'', tail));
+                rules.add(new StringSuffixRule(head, '"', tail));
                 continue;
             }
 
-            if (suffix.indexOf("(NUM)") > -1) {
-                String regExpSuffix = transformNum(suffix);
-                suffixPatterns.put(regExpSuffix, Pattern.compile(regExpSuffix));
+            if (suffix.indexOf("(" + NUM + ")") > -1) {
+                int index = suffix.indexOf(NUM);
+                rules.add(new NumberSuffixRule(
+                          suffix.substring(0, index),
+                          suffix.substring(index + NUM.length())));
                 continue;
             }
 
             if (suffix.indexOf("()") > -1) {
-                String regExpSuffix = suffix.replaceAll("\\(", "\\\\(")
-                                            .replaceAll("\\)", "\\\\)");
-                regExpSuffix = String.format("(%s)$", regExpSuffix);
-                suffixPatterns.put(regExpSuffix, Pattern.compile(regExpSuffix));
-                continue;
+                rules.add(new LiteralSuffixRule(suffix));
             }
         }
 
-        return suffixPatterns;
-    }
-
-    /**
-     * Create regular expression with fun('...').s
-     * @param suffix
-     * @return regular expression suffix
-     */
-    private String transformSTRWithSingleQuotes(String suffix) {
-        String regExpSuffix = suffix.replaceAll("\\(", "\\\\(")
-                                    .replaceAll("\\)", "\\\\)")
-                                    .replaceAll("STR", "'[\\\\s\\\\S]+'");
-        regExpSuffix = String.format("(%s)$", regExpSuffix);
-        return regExpSuffix;
-    }
-
-    /**
-     * Create regular expression with fun("...").
-     *
-     * @param suffix
-     * @return regular expression suffix
-     */
-    private String transformSTRWithDoubleQuotes(String suffix) {
-        String regExpSuffix = suffix.replaceAll("\\(", "\\\\(")
-                                    .replaceAll("\\)", "\\\\)")
-                                    .replaceAll("STR", "\"[\\\\s\\\\S]+\"");
-        regExpSuffix = String.format("(%s)$", regExpSuffix);
-        return regExpSuffix;
-    }
-
-    /**
-     * Create regular expression with fun(num) , like fun(123).
-     *
-     * @param suffix
-     * @return regular expression suffix
-     */
-    private String transformNum(String suffix) {
-        String regExpSuffix = suffix.replaceAll("\\(", "\\\\(")
-                                    .replaceAll("\\)", "\\\\)")
-                                    .replaceAll("NUM", "[\\\\d]+");
-        regExpSuffix = String.format("(%s)$", regExpSuffix);
-        return regExpSuffix;
+        return rules;
     }
 
     /**
@@ -126,11 +100,8 @@ public class RuleGremlinOptimizer implements GremlinOptimizer {
      */
     @Override
     public String limitOptimize(String code, int limit) {
-        for (Pattern p : suffixPatterns.values()) {
-            Matcher m = p.matcher(code);
-            if (m.find()) {
-                return code + ".limit(" + limit + ")";
-            }
+        if (matchSuffix(code)) {
+            return code + ".limit(" + limit + ")";
         }
 
         return code;
@@ -140,4 +111,132 @@ public class RuleGremlinOptimizer implements GremlinOptimizer {
     public String limitOptimize(String code) {
         return limitOptimize(code, configuration.getLimitData());
     }
+
+    /**
+     * Add 'range' to the end of gremlin statement to fetch a page, only the
+     * statements which 'limit' can be added to are pageable.
+     *
+     * @param code
+     * @param low  the offset of the first result, inclusive
+     * @param high the offset of the last result, exclusive
+     * @return null if the statement isn't pageable
+     */
+    @Override
+    public String rangeOptimize(String code, long low, long high) {
+        Preconditions.checkArgument(low >= 0 && low < high,
+                                    "Invalid range [%s, %s)", low, high);
+        if (matchSuffix(code)) {
+            return code + ".range(" + low + ", " + high + ")";
+        }
+
+        return null;
+    }
+
+    private boolean matchSuffix(String code) {
+        int end = endOfCode(code);
+        for (SuffixRule rule : suffixRules) {
+            if (rule.match(code, end)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Gets the end of code without a line terminator at the end.
+     */
+    private static int endOfCode(String code) {
+        int end = code.length();
+        if (code.endsWith("\r\n")) {
+            return end - 2;
+        }
+        if (end > 0) {
+            switch (code.charAt(end - 1)) {
+                case '\n':
+                case '\r':
+                case '\u0085':
+                case '\u2028':
+                case '\u2029':
+                    return end - 1;
+                default:
+                    break;
+            }
+        }
+        return end;
+    }
+
+    private interface SuffixRule {
+
+        /**
+         * Whether the code ends with the suffix at the end.
+         */
+        boolean match(String code, int end);
+    }
+
+    private static class LiteralSuffixRule implements SuffixRule {
+
+        private final String suffix;
+
+        public LiteralSuffixRule(String suffix) {
+            this.suffix = suffix;
+        }
+
+        @Override
+        public boolean match(String code, int end) {
+            return code.startsWith(this.suffix, end - this.suffix.length());
+        }
+    }
+
+    private static class NumberSuffixRule implements SuffixRule {
+
+        private final String head;
+        private final String tail;
+
+        public NumberSuffixRule(String head, String tail) {
+            this.head = head;
+            this.tail = tail;
+        }
+
+        @Override
+        public boolean match(String code, int end) {
+            int digitsEnd = end - this.tail.length();
+            if (!code.startsWith(this.tail, digitsEnd)) {
+                return false;
+            }
+            int digitsStart = digitsEnd;
+            while (digitsStart > 0 && isDigit(code.charAt(digitsStart - 1))) {
+                digitsStart--;
+            }
+            return digitsStart < digitsEnd &&
+                   code.startsWith(this.head,
+                                   digitsStart - this.head.length());
+        }
+
+        private static boolean isDigit(char c) {
+            return c >= '0' && c <= '9';
+        }
+    }
+
+    private static class StringSuffixRule implements SuffixRule {
+
+        private final String open;
+        private final String close;
+
+        public StringSuffixRule(String head, char quote, String tail) {
+            this.open = head + quote;
+            this.close = quote + tail;
+        }
+
+        @Override
+        public boolean match(String code, int end) {
+            int closeStart = end - this.close.length();
+            if (!code.startsWith(this.close, closeStart)) {
+                return false;
+            }
+            // At least one character is quoted
+            int openStart = closeStart - 1 - this.open.length();
+            return openStart >= 0 &&
+                   code.lastIndexOf(this.open, openStart) >= 0;
+        }
+    }
 }
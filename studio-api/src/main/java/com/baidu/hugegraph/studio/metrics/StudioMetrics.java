@@ -0,0 +1,75 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.baidu.hugegraph.studio.metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Metric;
+import com.codahale.metrics.MetricRegistry;
+
+/**
+ * The registry of all metrics reported by studio-api.
+ */
+public final class StudioMetrics {
+
+    private static final MetricRegistry REGISTRY = new MetricRegistry();
+
+    private StudioMetrics() {
+    }
+
+    public static MetricRegistry registry() {
+        return REGISTRY;
+    }
+
+    public static Counter counter(Class<?> clazz, String... names) {
+        return REGISTRY.counter(MetricRegistry.name(clazz, names));
+    }
+
+    /**
+     * Register a gauge, the existing one with the same name is replaced.
+     */
+    public static <T> void gauge(Gauge<T> gauge, Class<?> clazz,
+                                 String... names) {
+        String name = MetricRegistry.name(clazz, names);
+        REGISTRY.remove(name);
+        REGISTRY.register(name, gauge);
+    }
+
+    /**
+     * Gets the current value of all counters and gauges.
+     *
+     * @return the metric values sorted by name
+     */
+    public static Map<String, Object> values() {
+        Map<String, Object> values = new TreeMap<>();
+        for (Map.Entry<String, Metric> e : REGISTRY.getMetrics().entrySet()) {
+            Metric metric = e.getValue();
+            if (metric instanceof Counter) {
+                values.put(e.getKey(), ((Counter) metric).getCount());
+            } else if (metric instanceof Gauge) {
+                values.put(e.getKey(), ((Gauge<?>) metric).getValue());
+            }
+        }
+        return values;
+    }
+}
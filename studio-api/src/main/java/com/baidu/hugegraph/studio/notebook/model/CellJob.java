@@ -0,0 +1,179 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.baidu.hugegraph.studio.notebook.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * The state of a cell executed asynchronously, which is polled by clients
+ * until it's finished.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class CellJob {
+
+    /**
+     * The status of job.
+     */
+    public enum Status {
+
+        PENDING,
+        RUNNING,
+        SUCCESS,
+        FAILED,
+        CANCELLED;
+
+        public boolean finished() {
+            return this == SUCCESS || this == FAILED || this == CANCELLED;
+        }
+    }
+
+    @JsonProperty("id")
+    private final String id;
+
+    @JsonProperty("notebookId")
+    private final String notebookId;
+
+    @JsonProperty("cellId")
+    private final String cellId;
+
+    @JsonProperty("connectionId")
+    private final String connectionId;
+
+    @JsonProperty("status")
+    private volatile Status status = Status.PENDING;
+
+    @JsonProperty("created")
+    private final long created;
+
+    @JsonProperty("started")
+    private volatile Long started;
+
+    @JsonProperty("finished")
+    private volatile Long finished;
+
+    @JsonProperty("message")
+    private volatile String message;
+
+    // Guarded by this, the job can't be cancelled once it's saving
+    private boolean saving = false;
+
+    public CellJob(String id, String notebookId, String cellId,
+                   String connectionId) {
+        this.id = id;
+        this.notebookId = notebookId;
+        this.cellId = cellId;
+        this.connectionId = connectionId;
+        this.created = System.currentTimeMillis();
+    }
+
+    public String getId() {
+        return this.id;
+    }
+
+    public String getNotebookId() {
+        return this.notebookId;
+    }
+
+    public String getCellId() {
+        return this.cellId;
+    }
+
+    public String getConnectionId() {
+        return this.connectionId;
+    }
+
+    public Status getStatus() {
+        return this.status;
+    }
+
+    public long getCreated() {
+        return this.created;
+    }
+
+    public Long getStarted() {
+        return this.started;
+    }
+
+    public Long getFinished() {
+        return this.finished;
+    }
+
+    public String getMessage() {
+        return this.message;
+    }
+
+    /**
+     * Mark the job as running, it's ignored if the job has been cancelled.
+     *
+     * @return false if the job has been cancelled
+     */
+    public synchronized boolean start() {
+        if (this.status != Status.PENDING) {
+            return false;
+        }
+        this.status = Status.RUNNING;
+        this.started = System.currentTimeMillis();
+        return true;
+    }
+
+    /**
+     * Mark the job as saving its result, it can't be cancelled since then.
+     *
+     * @return false if the job has been cancelled
+     */
+    public synchronized boolean save() {
+        if (this.status != Status.RUNNING) {
+            return false;
+        }
+        this.saving = true;
+        return true;
+    }
+
+    /**
+     * Mark the job as cancelled, it's ignored if the job has been finished
+     * or is saving its result.
+     *
+     * @param message the reason of cancellation
+     * @return false if the job can't be cancelled
+     */
+    public synchronized boolean cancel(String message) {
+        if (this.saving || this.status.finished()) {
+            return false;
+        }
+        this.finish(Status.CANCELLED, message);
+        return true;
+    }
+
+    /**
+     * Mark the job as finished, it's ignored if the job has been finished.
+     *
+     * @param status  the final status
+     * @param message the message of failure
+     */
+    public synchronized void finish(Status status, String message) {
+        if (this.status.finished()) {
+            return;
+        }
+        this.status = status;
+        this.message = message;
+        this.finished = System.currentTimeMillis();
+    }
+}
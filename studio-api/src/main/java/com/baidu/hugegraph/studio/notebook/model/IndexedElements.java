@@ -0,0 +1,87 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.baidu.hugegraph.studio.notebook.model;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * The elements kept in insertion order and indexed by their ids, an element
+ * is added only if no element with the same id exists.
+ *
+ * @param <K> the type of id
+ * @param <E> the type of element
+ */
+final class IndexedElements<K, E> {
+
+    private final Function<E, K> idOf;
+    private final List<E> elements;
+    private final Map<K, E> index;
+
+    public IndexedElements(Function<E, K> idOf) {
+        this.idOf = idOf;
+        this.elements = new ArrayList<>();
+        this.index = new HashMap<>();
+    }
+
+    /**
+     * Add the element if absent.
+     *
+     * @return true if the element is added
+     */
+    public boolean add(E element) {
+        K id = this.idOf.apply(element);
+        if (this.index.putIfAbsent(id, element) != null) {
+            return false;
+        }
+        this.elements.add(element);
+        return true;
+    }
+
+    public void addAll(Collection<E> elements) {
+        for (E element : elements) {
+            this.add(element);
+        }
+    }
+
+    public boolean contains(K id) {
+        return this.index.containsKey(id);
+    }
+
+    public E get(K id) {
+        return this.index.get(id);
+    }
+
+    public int size() {
+        return this.elements.size();
+    }
+
+    /**
+     * Gets the read-only view of elements in insertion order.
+     */
+    public List<E> list() {
+        return Collections.unmodifiableList(this.elements);
+    }
+}
@@ -80,6 +80,8 @@ public class NotebookCell {
     private String msg;
     private NotebookCell.DataViewType dataViewType;
     private ViewSettings viewSettings;
+    // Don't use the cached result when the cell is executed
+    private Boolean bypassCache;
 
     /**
      * Instantiates a new Notebook cell.
@@ -262,6 +264,14 @@ public class NotebookCell {
         this.viewSettings = viewSettings;
     }
 
+    public Boolean getBypassCache() {
+        return this.bypassCache;
+    }
+
+    public void setBypassCache(Boolean bypassCache) {
+        this.bypassCache = bypassCache;
+    }
+
     public boolean equals(Object o) {
         if (this == o) {
             return true;
@@ -26,11 +26,12 @@ import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
-import java.util.stream.Collectors;
-import static java.util.stream.Collectors.toMap;
 
 /**
  * The result entity for jersey restful api, and will be return as json.
@@ -50,9 +51,17 @@ public class Result {
     @JsonProperty("duration")
     private Long duration = null;
 
+    // Whether the result is served by the cache rather than the server
+    @JsonProperty("cached")
+    private boolean cached = false;
+
     @JsonProperty("showNum")
     private int showNum = 0;
 
+    // Whether the data is truncated as it exceeds show.limit.data.bytes
+    @JsonProperty("truncated")
+    private boolean truncated = false;
+
     @JsonProperty("message")
     private String message;
 
@@ -130,6 +139,22 @@ public class Result {
         this.duration = duration;
     }
 
+    public boolean isCached() {
+        return this.cached;
+    }
+
+    public void setCached(boolean cached) {
+        this.cached = cached;
+    }
+
+    public boolean isTruncated() {
+        return this.truncated;
+    }
+
+    public void setTruncated(boolean truncated) {
+        this.truncated = truncated;
+    }
+
     public int getShowNum() {
         return showNum;
     }
@@ -237,15 +262,17 @@ public class Result {
 
     /**
      * The Graph class is used for contain Vertices & edges.
+     *
+     * The vertices and edges are indexed by id in insertion order, and so
+     * are the incident edges of each vertex, they are serialized as lists.
      */
     @JsonIgnoreProperties(ignoreUnknown = true)
     public class Graph {
 
-        @JsonProperty
-        private List<Vertex> vertices;
-
-        @JsonProperty
-        private List<Edge> edges;
+        // Null if not set, to tell an empty graph from no graph
+        private IndexedElements<Object, Vertex> vertices;
+        private IndexedElements<String, Edge> edges;
+        private Map<Object, List<Edge>> incidentEdges;
 
         @JsonProperty
         private Map<String, Object> styles;
@@ -260,54 +287,119 @@ public class Result {
         /**
          * Gets vertices.
          *
-         * @return the vertices
+         * @return the read-only vertices in insertion order
          */
+        @JsonProperty("vertices")
         public List<Vertex> getVertices() {
-            return vertices;
+            return this.vertices == null ? null : this.vertices.list();
         }
 
         /**
-         * Sets vertices.
+         * Sets vertices, the later ones with the same id are ignored.
          *
          * @param vertices the vertices
          */
+        @JsonProperty("vertices")
         public void setVertices(List<Vertex> vertices) {
             if (vertices == null) {
-                this.vertices = vertices;
+                this.vertices = null;
             } else {
-                // Distinct using map
-                this.vertices = vertices.stream()
-                                        .collect(toMap(Vertex::id, v -> v,
-                                                (v1, v2) -> v1)).values()
-                                        .stream().collect(Collectors.toList());
+                this.vertices = new IndexedElements<>(Vertex::id);
+                this.vertices.addAll(vertices);
+            }
+        }
+
+        /**
+         * Add a vertex if absent.
+         *
+         * @param vertex the vertex
+         * @return true if the vertex is added
+         */
+        public boolean addVertex(Vertex vertex) {
+            if (this.vertices == null) {
+                this.vertices = new IndexedElements<>(Vertex::id);
             }
+            return this.vertices.add(vertex);
+        }
+
+        public boolean containsVertex(Object id) {
+            return this.vertices != null && this.vertices.contains(id);
         }
 
         /**
          * Gets edges.
          *
-         * @return the edges
+         * @return the read-only edges in insertion order
          */
+        @JsonProperty("edges")
         public List<Edge> getEdges() {
-            return edges;
+            return this.edges == null ? null : this.edges.list();
         }
 
         /**
-         * Sets edges.
-         * distinct using map
+         * Sets edges, the later ones with the same id are ignored.
          *
          * @param edges the edges
          */
+        @JsonProperty("edges")
         public void setEdges(List<Edge> edges) {
+            this.incidentEdges = new HashMap<>();
             if (edges == null) {
-                this.edges = edges;
+                this.edges = null;
             } else {
-                this.edges = edges.stream()
-                        .collect(toMap(Edge::id, e -> e, (e1, e2) -> e1))
-                        .values().stream()
-                        .collect(Collectors.toList());
+                this.edges = new IndexedElements<>(Edge::id);
+                for (Edge edge : edges) {
+                    this.addEdge(edge);
+                }
+            }
+        }
+
+        /**
+         * Add an edge if absent.
+         *
+         * @param edge the edge
+         * @return true if the edge is added
+         */
+        public boolean addEdge(Edge edge) {
+            if (this.edges == null) {
+                this.edges = new IndexedElements<>(Edge::id);
+                this.incidentEdges = new HashMap<>();
+            }
+            if (!this.edges.add(edge)) {
+                return false;
+            }
+            this.incidentEdges.computeIfAbsent(edge.source(),
+                                               k -> new ArrayList<>())
+                              .add(edge);
+            if (!edge.target().equals(edge.source())) {
+                this.incidentEdges.computeIfAbsent(edge.target(),
+                                                   k -> new ArrayList<>())
+                                  .add(edge);
+            }
+            return true;
+        }
 
+        public boolean containsEdge(String id) {
+            return this.edges != null && this.edges.contains(id);
+        }
+
+        /**
+         * Gets the edges whose source or target is the vertex.
+         *
+         * @param vertexId the vertex id
+         * @return the read-only incident edges in insertion order
+         */
+        public List<Edge> incidentEdges(Object vertexId) {
+            List<Edge> edges = this.incidentEdges == null ?
+                               null : this.incidentEdges.get(vertexId);
+            if (edges == null) {
+                return Collections.emptyList();
             }
+            return Collections.unmodifiableList(edges);
+        }
+
+        public int edgeSize() {
+            return this.edges == null ? 0 : this.edges.size();
         }
 
         public Map<String, Object> getStyles() {
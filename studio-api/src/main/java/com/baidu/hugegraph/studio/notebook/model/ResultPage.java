@@ -0,0 +1,150 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.baidu.hugegraph.studio.notebook.model;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+import com.baidu.hugegraph.studio.common.errors.StudioError;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.base.Preconditions;
+import com.google.common.hash.Hashing;
+
+/**
+ * A page of the table-mode result of a cell, the next page is fetched with
+ * the cursor of this page.
+ *
+ * The cursor is opaque to clients, it's the offset of the next page along
+ * with a hash of the code, so that a cursor of the former code is rejected
+ * once the cell is edited.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class ResultPage {
+
+    @JsonProperty("data")
+    private List<Object> data;
+
+    @JsonProperty("offset")
+    private long offset;
+
+    @JsonProperty("cursor")
+    private String cursor;
+
+    public ResultPage() {
+    }
+
+    /**
+     * Create a page from the rows fetched with one more than the page size,
+     * the extra row tells whether there is a next page.
+     *
+     * @param rows   the rows from the offset
+     * @param offset the offset of the first row
+     * @param size   the page size
+     * @param code   the code of cell
+     * @return the page
+     */
+    public static ResultPage of(List<Object> rows, long offset, int size,
+                                String code) {
+        Preconditions.checkArgument(size > 0, "The page size must be > 0");
+        ResultPage page = new ResultPage();
+        page.offset = offset;
+        if (rows.size() > size) {
+            page.data = rows.subList(0, size);
+            page.cursor = cursor(offset + size, code);
+        } else {
+            page.data = rows;
+            page.cursor = null;
+        }
+        return page;
+    }
+
+    /**
+     * Gets the rows of this page.
+     *
+     * @return the rows
+     */
+    public List<Object> getData() {
+        return this.data;
+    }
+
+    /**
+     * Gets the offset of the first row.
+     *
+     * @return the offset
+     */
+    public long getOffset() {
+        return this.offset;
+    }
+
+    /**
+     * Gets the cursor of the next page.
+     *
+     * @return the cursor, null if this is the last page
+     */
+    public String getCursor() {
+        return this.cursor;
+    }
+
+    /**
+     * Encode the offset of a page of the code.
+     */
+    public static String cursor(long offset, String code) {
+        String value = offset + ":" + hash(code);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(
+               value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decode the offset from a cursor of the code.
+     *
+     * @param cursor the cursor, null or empty for the first page
+     * @param code   the code of cell
+     * @return the offset
+     * @throws StudioError if the cursor is invalid or of other code
+     */
+    public static long offset(String cursor, String code) {
+        if (cursor == null || cursor.isEmpty()) {
+            return 0L;
+        }
+        String[] parts;
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(cursor),
+                               StandardCharsets.UTF_8).split(":", 2);
+        } catch (IllegalArgumentException e) {
+            throw StudioError.invalidRequest("Invalid cursor " + cursor);
+        }
+        if (parts.length != 2 || !parts[0].matches("\\d{1,18}")) {
+            throw StudioError.invalidRequest("Invalid cursor " + cursor);
+        }
+        if (!parts[1].equals(hash(code))) {
+            throw StudioError.invalidRequest("The cursor is outdated since " +
+                                             "the code has been changed");
+        }
+        return Long.parseLong(parts[0]);
+    }
+
+    private static String hash(String code) {
+        return Hashing.murmur3_32().hashString(String.valueOf(code),
+                                               StandardCharsets.UTF_8)
+                      .toString();
+    }
+}
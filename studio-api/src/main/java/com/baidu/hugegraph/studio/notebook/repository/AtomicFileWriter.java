@@ -0,0 +1,375 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.baidu.hugegraph.studio.notebook.repository;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.output.CloseShieldOutputStream;
+import org.slf4j.Logger;
+
+import com.baidu.hugegraph.studio.config.StudioConfiguration;
+import com.baidu.hugegraph.studio.metrics.StudioMetrics;
+import com.baidu.hugegraph.util.Log;
+import com.codahale.metrics.Counter;
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.common.util.concurrent.Uninterruptibles;
+
+/**
+ * Write a file to a temp file in the same directory and rename it to the
+ * target atomically, so a crash never leaves a partially written file.
+ *
+ * The durability decides what is synced before a write returns:
+ * none:       nothing, the OS flushes the data when it likes
+ * fsync-file: the data of the file
+ * fsync-dir:  the data of the file and the rename in its directory
+ *
+ * With group commit, the writes arriving in a short window are committed
+ * together by a committer thread, and the renames in the same directory
+ * share one directory sync. Each file is still synced by itself, so group
+ * commit saves nothing but adds latency unless the durability is fsync-dir,
+ * it's ignored then. The writing threads only wait for the commit,
+ * so interrupting one of them like cancelling a cell job never fails the
+ * writes of the others.
+ *
+ * The appends to a file aren't atomic, they are synced by the durability
+ * without group commit.
+ */
+public class AtomicFileWriter {
+
+    private static final Logger LOG = Log.logger(AtomicFileWriter.class);
+
+    private static final String TEMP_PREFIX = ".";
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private static final ExecutorService COMMITTER =
+            Executors.newCachedThreadPool(new ThreadFactoryBuilder()
+                                          .setNameFormat("group-commit-%d")
+                                          .setDaemon(true).build());
+
+    public enum Durability {
+
+        NONE("none"),
+        FSYNC_FILE("fsync-file"),
+        FSYNC_DIR("fsync-dir");
+
+        private final String name;
+
+        Durability(String name) {
+            this.name = name;
+        }
+
+        public static Durability fromName(String name) {
+            for (Durability durability : values()) {
+                if (durability.name.equals(name)) {
+                    return durability;
+                }
+            }
+            throw new IllegalArgumentException(String.format(
+                      "Invalid durability '%s'", name));
+        }
+    }
+
+    /**
+     * Write the content of a file.
+     */
+    public interface Body {
+
+        void write(OutputStream os) throws IOException;
+    }
+
+    private final Durability durability;
+    private final long groupCommitDelay;
+
+    private final Object commitLock = new Object();
+    private List<Commit> pending = new ArrayList<>();
+    private boolean leading = false;
+
+    private final Counter fileSyncs;
+    private final Counter dirSyncs;
+
+    private static class AtomicFileWriterHolder {
+        private static final AtomicFileWriter writer = new AtomicFileWriter(
+                Durability.fromName(StudioConfiguration.getInstance()
+                                                       .getWriteDurability()),
+                StudioConfiguration.getInstance().getWriteGroupCommitDelay());
+    }
+
+    /**
+     * Gets the writer shared by the file repositories, so that their writes
+     * can be committed in the same group.
+     */
+    public static AtomicFileWriter instance() {
+        return AtomicFileWriterHolder.writer;
+    }
+
+    public AtomicFileWriter(Durability durability, long groupCommitDelay) {
+        Preconditions.checkNotNull(durability);
+        Preconditions.checkArgument(groupCommitDelay >= 0);
+        if (groupCommitDelay > 0 && durability != Durability.FSYNC_DIR) {
+            LOG.warn("Ignore the group commit delay {}ms, which only works " +
+                     "with durability fsync-dir but not {}",
+                     groupCommitDelay, durability.name);
+            groupCommitDelay = 0L;
+        }
+        this.durability = durability;
+        this.groupCommitDelay = groupCommitDelay;
+        this.fileSyncs = StudioMetrics.counter(AtomicFileWriter.class,
+                                               "file", "syncs");
+        this.dirSyncs = StudioMetrics.counter(AtomicFileWriter.class,
+                                              "dir", "syncs");
+    }
+
+    /**
+     * Gets the milliseconds to gather the writes, 0 if no group commit.
+     */
+    long groupCommitDelay() {
+        return this.groupCommitDelay;
+    }
+
+    /**
+     * Whether the file is a temp file left by an unfinished write.
+     */
+    public static boolean isTemp(Path path) {
+        String name = path.getFileName().toString();
+        return name.startsWith(TEMP_PREFIX) && name.endsWith(TEMP_SUFFIX);
+    }
+
+    /**
+     * Delete the temp files left by a crash in the directory and its
+     * subdirectories, it should be called before any write to them.
+     */
+    public static void deleteTemps(Path dir) {
+        if (!Files.isDirectory(dir)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(dir)) {
+            paths.filter(AtomicFileWriter::isTemp).forEach(path -> {
+                LOG.info("Delete the temp file left by a crash: {}", path);
+                FileUtils.deleteQuietly(path.toFile());
+            });
+        } catch (IOException | UncheckedIOException e) {
+            LOG.warn("Failed to delete the temp files in: {}", dir, e);
+        }
+    }
+
+    /**
+     * Write the file atomically, the file is replaced if it exists.
+     *
+     * @param target the file to write
+     * @param body   write the content to the stream
+     */
+    public void write(Path target, Body body) throws IOException {
+        Path temp = target.resolveSibling(String.format("%s%s.%s%s",
+                                          TEMP_PREFIX, target.getFileName(),
+                                          UUID.randomUUID(), TEMP_SUFFIX));
+        boolean group = this.groupCommitDelay > 0;
+        try {
+            try (FileChannel channel = FileChannel.open(
+                                       temp, StandardOpenOption.CREATE_NEW,
+                                       StandardOpenOption.WRITE)) {
+                OutputStream os = new BufferedOutputStream(
+                                  Channels.newOutputStream(channel));
+                // The channel is still needed after the body is written
+                body.write(new CloseShieldOutputStream(os));
+                os.flush();
+                if (!group && this.durability != Durability.NONE) {
+                    channel.force(true);
+                    this.fileSyncs.inc();
+                }
+            }
+            if (group) {
+                this.groupCommit(new Commit(temp, target));
+            } else {
+                this.rename(temp, target);
+                if (this.durability == Durability.FSYNC_DIR) {
+                    this.syncDirectory(target.getParent());
+                }
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Append the data to the file at the position and sync it as the
+     * durability, the file is created if it doesn't exist, and anything
+     * after the position like a partially written tail is dropped first.
+     *
+     * @param target   the file to append to
+     * @param position the end of the valid content of the file
+     * @param data     the data to append
+     * @return the end of the file after appended
+     */
+    public long append(Path target, long position, ByteBuffer data)
+                       throws IOException {
+        boolean created = !Files.exists(target);
+        try (FileChannel channel = FileChannel.open(
+                                   target, StandardOpenOption.CREATE,
+                                   StandardOpenOption.WRITE)) {
+            long size = channel.size();
+            Preconditions.checkArgument(position <= size,
+                                        "Can't append to %s at %s beyond " +
+                                        "the end %s", target, position, size);
+            if (size > position) {
+                LOG.warn("Truncate {} bytes after {} of file: {}",
+                         size - position, position, target);
+                channel.truncate(position);
+            }
+            while (data.hasRemaining()) {
+                position += channel.write(data, position);
+            }
+            if (this.durability != Durability.NONE) {
+                channel.force(true);
+                this.fileSyncs.inc();
+            }
+        }
+        if (created && this.durability == Durability.FSYNC_DIR) {
+            this.syncDirectory(target.getParent());
+        }
+        return position;
+    }
+
+    private void groupCommit(Commit commit) throws IOException {
+        synchronized (this.commitLock) {
+            this.pending.add(commit);
+            if (!this.leading) {
+                this.leading = true;
+                COMMITTER.execute(this::lead);
+            }
+        }
+        commit.await();
+    }
+
+    private void lead() {
+        // Wait for a moment to gather the writes of a burst
+        Uninterruptibles.sleepUninterruptibly(this.groupCommitDelay,
+                                              TimeUnit.MILLISECONDS);
+        while (true) {
+            List<Commit> batch;
+            synchronized (this.commitLock) {
+                batch = this.pending;
+                if (batch.isEmpty()) {
+                    this.leading = false;
+                    return;
+                }
+                this.pending = new ArrayList<>();
+            }
+            this.commit(batch);
+        }
+    }
+
+    private void commit(List<Commit> batch) {
+        Set<Path> dirs = new LinkedHashSet<>();
+        List<Commit> renamed = new ArrayList<>();
+        for (Commit commit : batch) {
+            try {
+                try (FileChannel channel = FileChannel.open(
+                                           commit.temp,
+                                           StandardOpenOption.WRITE)) {
+                    channel.force(true);
+                    this.fileSyncs.inc();
+                }
+                this.rename(commit.temp, commit.target);
+                dirs.add(commit.target.getParent());
+                renamed.add(commit);
+            } catch (IOException | RuntimeException e) {
+                commit.done(e);
+            }
+        }
+        if (this.durability == Durability.FSYNC_DIR) {
+            for (Path dir : dirs) {
+                this.syncDirectory(dir);
+            }
+        }
+        LOG.debug("Group committed {} of {} writes", renamed.size(),
+                  batch.size());
+        renamed.forEach(commit -> commit.done(null));
+    }
+
+    private void rename(Path temp, Path target) throws IOException {
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE,
+                   StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private void syncDirectory(Path dir) {
+        try (FileChannel channel = FileChannel.open(dir,
+                                                    StandardOpenOption.READ)) {
+            channel.force(true);
+            this.dirSyncs.inc();
+        } catch (IOException e) {
+            // Some platforms like Windows can't open a directory
+            LOG.debug("Failed to sync directory: {}", dir, e);
+        }
+    }
+
+    private static class Commit {
+
+        private final Path temp;
+        private final Path target;
+        private final CountDownLatch latch = new CountDownLatch(1);
+        private volatile Exception error;
+
+        public Commit(Path temp, Path target) {
+            this.temp = temp;
+            this.target = target;
+        }
+
+        public void done(Exception error) {
+            this.error = error;
+            this.latch.countDown();
+        }
+
+        public void await() throws IOException {
+            /*
+             * The committer owns the temp file once it's queued, so wait
+             * until it's committed, the interruption is kept for the caller.
+             */
+            Uninterruptibles.awaitUninterruptibly(this.latch);
+            if (this.error instanceof IOException) {
+                throw (IOException) this.error;
+            } else if (this.error != null) {
+                throw new IOException("Failed to commit " + this.target,
+                                      this.error);
+            }
+        }
+    }
+}
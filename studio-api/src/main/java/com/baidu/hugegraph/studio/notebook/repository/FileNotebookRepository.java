@@ -19,61 +19,93 @@
 
 package com.baidu.hugegraph.studio.notebook.repository;
 
-import java.io.BufferedWriter;
-import java.io.DataInputStream;
-import java.io.DataOutput;
-import java.io.DataOutputStream;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
-import java.io.FileReader;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.OutputStream;
-import java.io.Reader;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 
+import com.baidu.hugegraph.studio.common.serializer.ObjectMapperProvider;
 import com.baidu.hugegraph.studio.config.StudioConfiguration;
 import com.baidu.hugegraph.studio.notebook.model.Notebook;
 import com.baidu.hugegraph.studio.notebook.model.NotebookCell;
 import com.baidu.hugegraph.studio.notebook.model.ViewSettings;
 import com.baidu.hugegraph.util.Log;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.google.common.base.Charsets;
 import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.Striped;
 
 /**
  * The type File notebook repository.
  *
  * Save notebook entity to disk as json.
  * Read notebook entity from disk.
+ *
+ * A notebook is saved as a manifest file {notebooksDirectory}/{notebookId}
+ * which keeps the ordered ids of cells, and one file for each cell
+ * {notebooksDirectory}/cells/{notebookId}/{cellId}, so a cell can be added,
+ * replaced or removed without rewriting the other cells.
  */
 @Repository("notebookRepository")
 public class FileNotebookRepository implements NotebookRepository {
 
     private static final Logger LOG = Log.logger(FileNotebookRepository.class);
 
-    private final ObjectMapper mapper = new ObjectMapper();
+    private static final String CELLS_DIR = "cells";
+    private static final String CELL_IDS = "cellIds";
+    private static final int LOCK_STRIPES = 64;
+
+    private final ObjectMapper mapper = ObjectMapperProvider.mapper();
+    /*
+     * The results of cells are kept by the result repository, and the cells
+     * are kept in their own files, so neither of them is written into the
+     * manifest. The cell files are always json, the manifest is encoded by
+     * the codec configured and read by the codec of its file.
+     */
+    private final Map<NotebookFile.Codec, ObjectMapper> writeMappers =
+            new EnumMap<>(NotebookFile.Codec.class);
+    private final Map<NotebookFile.Codec, ObjectMapper> readMappers =
+            new EnumMap<>(NotebookFile.Codec.class);
     private StudioConfiguration configuration;
     private String notebooksDataDirectory;
+    private String cellsDataDirectory;
+
+    // Guard the files of each notebook, keyed by the notebook id
+    private final Striped<ReadWriteLock> locks =
+            Striped.readWriteLock(LOCK_STRIPES);
+    /*
+     * The summaries of all notebooks, which are loaded at startup and
+     * updated on each write, so listing notebooks needn't read any file.
+     */
+    private final ConcurrentMap<String, Map<String, Object>> summaries =
+            new ConcurrentHashMap<>();
+    private final AtomicFileWriter writer = AtomicFileWriter.instance();
+    private NotebookFile.Codec codec;
+    private NotebookFile.Compression compression;
 
-    private final ReadWriteLock lock = new ReentrantReadWriteLock();
-    private final Lock readLock = lock.readLock();
-    private final Lock writeLock = lock.writeLock();
+    @Autowired
+    private ResultRepository resultRepository;
 
     /**
      * Instantiates a new File notebook repository.
@@ -86,43 +118,164 @@ public class FileNotebookRepository implements NotebookRepository {
         configuration = StudioConfiguration.getInstance();
         notebooksDataDirectory = configuration.getNotebooksDirectory();
         Preconditions.checkNotNull(notebooksDataDirectory);
+        cellsDataDirectory = notebooksDataDirectory + "/" + CELLS_DIR;
+        codec = NotebookFile.Codec.fromName(configuration.getStoreCodec());
+        compression = NotebookFile.Compression.fromName(
+                      configuration.getStoreCompression());
+        for (NotebookFile.Codec c : NotebookFile.Codec.values()) {
+            readMappers.put(c, c.newMapper());
+            writeMappers.put(c, c.newMapper()
+                                 .addMixIn(Notebook.class,
+                                           NotebookWithoutCells.class)
+                                 .addMixIn(NotebookCell.class,
+                                           CellWithoutResult.class));
+        }
 
         LOG.info("notebooksDataDirectory is: {}",  notebooksDataDirectory);
-        File dir = new File(notebooksDataDirectory);
+        File dir = new File(cellsDataDirectory);
         if (!dir.exists()) {
             dir.mkdirs();
         }
         Preconditions.checkArgument(dir.exists() && dir.isDirectory());
+
+        loadSummaries();
+    }
+
+    private void loadSummaries() {
+        // The temp files of cells are left by a crash in the middle of writing
+        AtomicFileWriter.deleteTemps(Paths.get(cellsDataDirectory));
+        try {
+            Files.list(Paths.get(notebooksDataDirectory)).forEach(path -> {
+                if (AtomicFileWriter.isTemp(path)) {
+                    // Left by a crash in the middle of writing
+                    FileUtils.deleteQuietly(path.toFile());
+                } else if (Files.isRegularFile(path)) {
+                    Notebook notebook = getNotebookByPath(path, false);
+                    if (notebook != null) {
+                        summaries.put(notebook.getId(), notebook.summary());
+                    }
+                }
+            });
+        } catch (Exception e) {
+            LOG.error("Failed to read file: {}", notebooksDataDirectory, e);
+        }
+        LOG.info("Loaded the summaries of {} notebooks", summaries.size());
+    }
+
+    private Lock readLock(String notebookId) {
+        return this.locks.get(notebookId).readLock();
     }
 
+    private Lock writeLock(String notebookId) {
+        return this.locks.get(notebookId).writeLock();
+    }
+
+    /**
+     * Write the manifest and all cells of the notebook, the cells which
+     * no longer belong to the notebook are removed.
+     */
     private void writeNotebook(Notebook notebook) {
         Preconditions.checkNotNull(notebook);
         Preconditions.checkArgument(StringUtils.isNotEmpty(notebook.getId()));
 
-        /*
-         * Should we flush and close for each buffered writing? Also, why
-         * not throw runtime exception if write failed in this case?
-         */
+        List<String> cellIds = new ArrayList<>();
+        Lock writeLock = this.writeLock(notebook.getId());
+        writeLock.lock();
+        try {
+            Manifest old = this.readManifest(notebook.getId());
+            if (notebook.getCells() != null) {
+                for (NotebookCell cell : notebook.getCells()) {
+                    this.writeCell(notebook.getId(), cell);
+                    cellIds.add(cell.getId());
+                }
+            }
+            this.writeManifest(notebook, cellIds);
+
+            if (old != null && !old.legacy()) {
+                for (String cellId : old.cellIds()) {
+                    if (!cellIds.contains(cellId)) {
+                        this.removeCell(notebook.getId(), cellId);
+                    }
+                }
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void writeManifest(Notebook notebook, List<String> cellIds) {
         String filePath = notebooksDataDirectory + "/" + notebook.getId();
+        Lock writeLock = this.writeLock(notebook.getId());
         writeLock.lock();
-        try (OutputStream os = new FileOutputStream(filePath);
-             DataOutputStream out = new DataOutputStream(os)) {
-            String summary = mapper.writeValueAsString(notebook.summary());
-            out.writeUTF(summary);
-            byte[] all = mapper.writeValueAsString(notebook)
-                               .getBytes(Charsets.UTF_8);
-            out.writeInt(all.length);
-            out.write(all);
+        try {
+            byte[] summary = mapper.writeValueAsBytes(notebook.summary());
+            ManifestBody body = new ManifestBody(notebook, cellIds);
+            writer.write(Paths.get(filePath), os -> {
+                NotebookFile.write(os, codec, compression, summary,
+                                   out -> writeMappers.get(codec)
+                                                      .writeValue(out, body));
+            });
+            summaries.put(notebook.getId(), notebook.summary());
             LOG.debug("Write Notebook file: {}", filePath);
         } catch (IOException e) {
             LOG.error("Failed to write Notebook file: {}", filePath, e);
             throw new RuntimeException(String.format(
-                      "Failed to write Notebook file: {}", filePath));
+                      "Failed to write Notebook file: %s", filePath));
         } finally {
             writeLock.unlock();
         }
     }
 
+    private void writeCell(String notebookId, NotebookCell cell) {
+        Preconditions.checkArgument(StringUtils.isNotEmpty(cell.getId()));
+        File file = FileUtils.getFile(cellsDataDirectory, notebookId,
+                                      cell.getId());
+        Lock writeLock = this.writeLock(notebookId);
+        writeLock.lock();
+        try {
+            FileUtils.forceMkdir(file.getParentFile());
+            ObjectMapper cellMapper = writeMappers.get(NotebookFile.Codec.JSON);
+            writer.write(file.toPath(), os -> cellMapper.writeValue(os, cell));
+            LOG.debug("Write Notebook cell file: {}", file);
+        } catch (IOException e) {
+            LOG.error("Failed to write Notebook cell file: {}", file, e);
+            throw new RuntimeException(String.format(
+                      "Failed to write Notebook cell file: %s", file));
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private NotebookCell readCell(String notebookId, String cellId) {
+        File file = FileUtils.getFile(cellsDataDirectory, notebookId, cellId);
+        Lock readLock = this.readLock(notebookId);
+        readLock.lock();
+        try {
+            if (!file.exists()) {
+                return null;
+            }
+            return ObjectMapperProvider.reader(NotebookCell.class)
+                                       .readValue(file);
+        } catch (IOException e) {
+            LOG.error("Failed to read Notebook cell file: {}", file, e);
+        } finally {
+            readLock.unlock();
+        }
+        return null;
+    }
+
+    private void removeCell(String notebookId, String cellId) {
+        Lock writeLock = this.writeLock(notebookId);
+        writeLock.lock();
+        try {
+            FileUtils.deleteQuietly(FileUtils.getFile(cellsDataDirectory,
+                                                      notebookId, cellId));
+        } finally {
+            writeLock.unlock();
+        }
+        resultRepository.deleteResult(notebookId, cellId);
+    }
+
     @Override
     public Notebook createNotebook(Notebook notebook) {
         Preconditions.checkNotNull(notebook);
@@ -165,18 +318,9 @@ public class FileNotebookRepository implements NotebookRepository {
 
     @Override
     public List<Notebook> getNotebooks() {
-        List<Notebook> notebooks = new ArrayList<>();
-        try {
-            Files.list(Paths.get(notebooksDataDirectory)).forEach(path -> {
-                if (Files.isRegularFile(path)) {
-                    Notebook notebook = getNotebookByPath(path, false);
-                    if (notebook != null) {
-                        notebooks.add(notebook);
-                    }
-                }
-            });
-        } catch (Exception e) {
-            LOG.error("Failed to read file: {}", notebooksDataDirectory, e);
+        List<Notebook> notebooks = new ArrayList<>(summaries.size());
+        for (Map<String, Object> summary : summaries.values()) {
+            notebooks.add(mapper.convertValue(summary, Notebook.class));
         }
         return notebooks;
     }
@@ -184,8 +328,12 @@ public class FileNotebookRepository implements NotebookRepository {
     @Override
     public void deleteNotebook(String notebookId) {
         String path = notebooksDataDirectory + "/" + notebookId;
+        Lock writeLock = this.writeLock(notebookId);
         writeLock.lock();
         try {
+            summaries.remove(notebookId);
+            FileUtils.deleteQuietly(FileUtils.getFile(cellsDataDirectory,
+                                                      notebookId));
             FileUtils.forceDelete(FileUtils.getFile(notebooksDataDirectory,
                                                     notebookId));
         } catch (IOException e) {
@@ -193,28 +341,156 @@ public class FileNotebookRepository implements NotebookRepository {
         } finally {
             writeLock.unlock();
         }
+        resultRepository.deleteResults(notebookId);
     }
 
     @Override
     public Notebook getNotebook(String notebookId) {
-        String path = notebooksDataDirectory + "/" + notebookId;
-        return this.getNotebookByPath(Paths.get(path), true);
+        return this.getNotebook(notebookId, true);
     }
 
-    public Notebook getNotebookByPath(Path path, boolean all) {
+    @Override
+    public Notebook getNotebook(String notebookId, boolean withResults) {
+        Notebook notebook = this.loadNotebook(notebookId);
+        if (withResults && notebook != null && notebook.getCells() != null) {
+            for (NotebookCell cell : notebook.getCells()) {
+                if (cell.getResult() == null) {
+                    cell.setResult(resultRepository.getResult(notebookId,
+                                                              cell.getId()));
+                }
+            }
+        }
+        return notebook;
+    }
+
+    /**
+     * Load the notebook without the results of cells, it's enough for
+     * editing the notebook.
+     */
+    private Notebook loadNotebook(String notebookId) {
+        Lock readLock = this.readLock(notebookId);
         readLock.lock();
-        try (InputStream is = new FileInputStream(path.toFile());
-             DataInputStream input = new DataInputStream(is)) {
-            String summary = input.readUTF();
-            if (!all) {
-                return mapper.readValue(summary, Notebook.class);
-            } else {
-                int len = input.readInt();
-                byte[] bytes = new byte[len];
-                LOG.info("Read total data: {} bytes", len);
-                input.readFully(bytes);
-                return mapper.readValue(bytes, Notebook.class);
+        try {
+            Manifest manifest = this.readManifest(notebookId);
+            if (manifest == null) {
+                return null;
+            }
+            if (!manifest.legacy()) {
+                return this.loadCells(manifest);
             }
+        } finally {
+            readLock.unlock();
+        }
+
+        Lock writeLock = this.writeLock(notebookId);
+        writeLock.lock();
+        try {
+            // It might be migrated and edited by others before locked
+            Manifest manifest = this.readManifest(notebookId);
+            if (manifest == null) {
+                return null;
+            }
+            if (manifest.legacy()) {
+                return this.migrate(manifest.notebook);
+            }
+            return this.loadCells(manifest);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Fill the notebook of manifest with its cells.
+     * The read or write lock must be held by the caller.
+     */
+    private Notebook loadCells(Manifest manifest) {
+        String notebookId = manifest.notebook.getId();
+        List<NotebookCell> cells = new ArrayList<>();
+        for (String cellId : manifest.cellIds()) {
+            NotebookCell cell = this.readCell(notebookId, cellId);
+            if (cell == null) {
+                LOG.warn("The cell {} of notebook {} is missing",
+                         cellId, notebookId);
+                continue;
+            }
+            cells.add(cell);
+        }
+        manifest.notebook.setCells(cells);
+        return manifest.notebook;
+    }
+
+    /**
+     * Get the manifest of the notebook, the notebook written by former
+     * versions is moved to the manifest and cell files at first.
+     * The write lock must be held by the caller.
+     */
+    private Manifest manifest(String notebookId) {
+        Manifest manifest = this.readManifest(notebookId);
+        Preconditions.checkNotNull(manifest);
+        if (manifest.legacy()) {
+            this.migrate(manifest.notebook);
+            manifest = this.readManifest(notebookId);
+        }
+        return manifest;
+    }
+
+    private Notebook migrate(Notebook notebook) {
+        if (notebook.getCells() != null) {
+            for (NotebookCell cell : notebook.getCells()) {
+                // Move the result written by former versions out of file
+                if (cell.getResult() != null &&
+                    resultRepository.getResult(notebook.getId(),
+                                               cell.getId()) == null) {
+                    resultRepository.saveResult(notebook.getId(),
+                                                cell.getId(),
+                                                cell.getResult());
+                }
+                cell.setResult(null);
+            }
+        }
+        this.writeNotebook(notebook);
+        LOG.info("Migrated notebook {} to per-cell files", notebook.getId());
+        return notebook;
+    }
+
+    private Manifest readManifest(String notebookId) {
+        Path path = Paths.get(notebooksDataDirectory, notebookId);
+        if (!Files.exists(path)) {
+            return null;
+        }
+        Lock readLock = this.readLock(notebookId);
+        readLock.lock();
+        try (NotebookFile file = NotebookFile.open(path);
+             InputStream body = file.body()) {
+            LOG.debug("Read total data: {} bytes", file.bodyLength());
+            JsonNode node = readMappers.get(file.codec()).readTree(body);
+            Notebook notebook = mapper.treeToValue(node, Notebook.class);
+            List<String> cellIds = null;
+            if (node.has(CELL_IDS)) {
+                cellIds = new ArrayList<>();
+                for (JsonNode id : node.get(CELL_IDS)) {
+                    cellIds.add(id.asText());
+                }
+            }
+            return new Manifest(notebook, cellIds);
+        } catch (IOException e) {
+            LOG.error("Failed to read File: {}", path, e);
+        } finally {
+            readLock.unlock();
+        }
+        return null;
+    }
+
+    public Notebook getNotebookByPath(Path path, boolean all) {
+        if (all) {
+            return this.loadNotebook(path.getFileName().toString());
+        }
+        Lock readLock = this.readLock(path.getFileName().toString());
+        readLock.lock();
+        try (NotebookFile file = NotebookFile.open(path);
+             InputStream summary = file.summary()) {
+            return ObjectMapperProvider.reader(Notebook.class)
+                                       .readValue(summary);
         } catch (IOException e) {
             LOG.error("Failed to read File: {}", path, e);
         } finally {
@@ -224,6 +500,15 @@ public class FileNotebookRepository implements NotebookRepository {
         return null;
     }
 
+    /**
+     * Touch the notebook and write its manifest with the cell ids.
+     * The write lock must be held by the caller.
+     */
+    private void touch(Manifest manifest) {
+        manifest.notebook.setLastUsed(Instant.now().getEpochSecond());
+        this.writeManifest(manifest.notebook, manifest.cellIds());
+    }
+
     @Override
     public NotebookCell addCellToNotebook(String notebookId, NotebookCell cell,
                                           Integer index) {
@@ -231,13 +516,22 @@ public class FileNotebookRepository implements NotebookRepository {
         if (StringUtils.isEmpty(cell.getId())) {
             cell.setId(UUID.randomUUID().toString());
         }
-        Notebook notebook = getNotebook(notebookId);
-        Preconditions.checkNotNull(notebook);
-
-        notebook.setLastUsed(Instant.now().getEpochSecond());
-        notebook.addCell(cell, index);
-        writeNotebook(notebook);
-
+        Lock writeLock = this.writeLock(notebookId);
+        writeLock.lock();
+        try {
+            Manifest manifest = this.manifest(notebookId);
+            List<String> cellIds = manifest.cellIds();
+            cellIds.remove(cell.getId());
+            if (index != null) {
+                cellIds.add(index.intValue(), cell.getId());
+            } else {
+                cellIds.add(cell.getId());
+            }
+            this.writeCell(notebookId, cell);
+            this.touch(manifest);
+        } finally {
+            writeLock.unlock();
+        }
         return cell;
     }
 
@@ -245,12 +539,22 @@ public class FileNotebookRepository implements NotebookRepository {
     public NotebookCell editNotebookCell(String notebookId, NotebookCell cell) {
         Preconditions.checkNotNull(cell);
 
-        Notebook notebook = getNotebook(notebookId);
-        Preconditions.checkNotNull(notebook);
-
-        notebook.setLastUsed(Instant.now().getEpochSecond());
-        notebook.addCell(cell);
-        writeNotebook(notebook);
+        Lock writeLock = this.writeLock(notebookId);
+        writeLock.lock();
+        try {
+            Manifest manifest = this.manifest(notebookId);
+            if (!manifest.cellIds().contains(cell.getId())) {
+                manifest.cellIds().add(cell.getId());
+            }
+            this.writeCell(notebookId, cell);
+            this.touch(manifest);
+        } finally {
+            writeLock.unlock();
+        }
+        if (cell.getResult() != null) {
+            resultRepository.saveResult(notebookId, cell.getId(),
+                                        cell.getResult());
+        }
 
         return cell;
     }
@@ -258,44 +562,112 @@ public class FileNotebookRepository implements NotebookRepository {
     @Override
     public NotebookCell editNotebookCell(String notebookId, String cellId,
                                          NotebookCell cell) {
-        Notebook notebook = getNotebook(notebookId);
-        Preconditions.checkNotNull(notebook);
+        Lock writeLock = this.writeLock(notebookId);
+        writeLock.lock();
+        try {
+            Manifest manifest = this.manifest(notebookId);
+            Preconditions.checkArgument(manifest.cellIds().contains(cellId),
+                                        "The cell %s does not exist", cellId);
+            NotebookCell cellLocal = this.readCell(notebookId, cellId);
+            Preconditions.checkNotNull(cellLocal);
+
+            if (cell.getCode() != null) {
+                cellLocal.setCode(cell.getCode());
+            }
+            if (cell.getLanguage() != null) {
+                cellLocal.setLanguage(cell.getLanguage());
+            }
+            if (cell.getViewSettings() != null) {
+                cellLocal.setViewSettings(cell.getViewSettings());
+            }
+            if (cell.getDataViewType() != null) {
+                cellLocal.setDataViewType(cell.getDataViewType());
+            }
+            if (cell.getBypassCache() != null) {
+                cellLocal.setBypassCache(cell.getBypassCache());
+            }
 
-        NotebookCell cellLocal = this.getNotebookCell(notebookId, cellId);
+            this.writeCell(notebookId, cellLocal);
+            this.touch(manifest);
+            return cellLocal;
+        } finally {
+            writeLock.unlock();
+        }
+    }
 
-        if (cell.getCode() != null) {
-            cellLocal.setCode(cell.getCode());
+    @Override
+    public void deleteNotebookCell(String notebookId, String cellId) {
+        Lock writeLock = this.writeLock(notebookId);
+        writeLock.lock();
+        try {
+            Manifest manifest = this.manifest(notebookId);
+            manifest.cellIds().remove(cellId);
+            this.touch(manifest);
+            this.removeCell(notebookId, cellId);
+        } finally {
+            writeLock.unlock();
         }
-        if (cell.getLanguage() != null) {
-            cellLocal.setLanguage(cell.getLanguage());
+    }
+
+    @Override
+    public NotebookCell getNotebookCell(String notebookId, String cellId) {
+        NotebookCell cell = this.readCell(notebookId, cellId);
+        if (cell == null) {
+            // The notebook might be written by former versions
+            Notebook notebook = loadNotebook(notebookId);
+            Preconditions.checkNotNull(notebook);
+            cell = notebook.getCellById(cellId);
         }
-        if (cell.getViewSettings() != null) {
-            cellLocal.setViewSettings(cell.getViewSettings());
+        if (cell.getResult() == null) {
+            cell.setResult(resultRepository.getResult(notebookId, cellId));
         }
-        if (cell.getDataViewType() != null) {
-            cellLocal.setDataViewType(cell.getDataViewType());
+        return cell;
+    }
+
+    private static class Manifest {
+
+        private final Notebook notebook;
+        // Null if the cells are written inline by former versions
+        private final List<String> cellIds;
+
+        public Manifest(Notebook notebook, List<String> cellIds) {
+            this.notebook = notebook;
+            this.cellIds = cellIds;
         }
 
-        notebook.setLastUsed(Instant.now().getEpochSecond());
-        notebook.addCell(cellLocal);
-        writeNotebook(notebook);
+        public boolean legacy() {
+            return this.cellIds == null;
+        }
 
-        return cellLocal;
+        public List<String> cellIds() {
+            Preconditions.checkState(!this.legacy());
+            return this.cellIds;
+        }
     }
 
-    @Override
-    public void deleteNotebookCell(String notebookId, String cellId) {
-        Notebook notebook = getNotebook(notebookId);
-        Preconditions.checkNotNull(notebook);
-        notebook.removeCell(cellId);
-        writeNotebook(notebook);
+    /**
+     * The body of manifest: the fields of notebook and the ids of cells.
+     */
+    private static class ManifestBody {
+
+        @JsonUnwrapped
+        private final Notebook notebook;
+        @JsonProperty(CELL_IDS)
+        private final List<String> cellIds;
+
+        public ManifestBody(Notebook notebook, List<String> cellIds) {
+            this.notebook = notebook;
+            this.cellIds = cellIds;
+        }
     }
 
-    @Override
-    public NotebookCell getNotebookCell(String notebookId, String cellId) {
-        Notebook notebook = getNotebook(notebookId);
-        Preconditions.checkNotNull(notebook);
-        return notebook.getCells().stream().filter(c -> c.getId().equals(cellId))
-               .findFirst().get();
+    @JsonIgnoreProperties(value = "cells", allowSetters = true,
+                          ignoreUnknown = true)
+    private static abstract class NotebookWithoutCells {
+    }
+
+    @JsonIgnoreProperties(value = "result", allowSetters = true,
+                          ignoreUnknown = true)
+    private static abstract class CellWithoutResult {
     }
 }
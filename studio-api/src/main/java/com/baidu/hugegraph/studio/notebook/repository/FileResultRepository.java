@@ -0,0 +1,392 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.baidu.hugegraph.studio.notebook.repository;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.zip.CRC32;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.springframework.stereotype.Repository;
+
+import com.baidu.hugegraph.structure.graph.Edge;
+import com.baidu.hugegraph.structure.graph.Vertex;
+import com.baidu.hugegraph.studio.common.serializer.ObjectMapperProvider;
+import com.baidu.hugegraph.studio.config.StudioConfiguration;
+import com.baidu.hugegraph.studio.metrics.StudioMetrics;
+import com.baidu.hugegraph.studio.notebook.model.Result;
+import com.baidu.hugegraph.util.Log;
+import com.codahale.metrics.Counter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.Striped;
+
+/**
+ * Save the result of each cell in its own file:
+ * {resultsDirectory}/{notebookId}/{cellId}, so executing a cell doesn't
+ * rewrite the notebook and the results of other cells. The results are
+ * written in the notebook file format without summary, so they can be
+ * encoded as smile or compressed, the plain json written by former versions
+ * is still readable.
+ *
+ * The vertices and edges expanded from a result are appended to a delta
+ * file {cellId}.delta beside the result rather than rewriting it, each
+ * delta is a record of:
+ *
+ * codec(1) length(4) crc(4) body(length)
+ *
+ * The deltas are merged into the result when it's read, and compacted into
+ * the result file once they are as large as it, so an expansion costs the
+ * size of its own elements rather than the whole graph in amortized.
+ *
+ * A crash can leave a partially written record at the end, the records are
+ * read until the first one which is incomplete or mismatches its crc, and
+ * the file is truncated to the end of the valid records before appending,
+ * so the later deltas are never appended after a broken one.
+ */
+@Repository("resultRepository")
+public class FileResultRepository implements ResultRepository {
+
+    private static final Logger LOG = Log.logger(FileResultRepository.class);
+
+    private static final byte[] NO_SUMMARY = new byte[0];
+
+    private static final int LOCK_STRIPES = 64;
+
+    private static final String DELTA_SUFFIX = ".delta";
+    // The deltas smaller than it are never compacted
+    private static final long MIN_COMPACT_SIZE = 64 * 1024L;
+    private static final int DELTA_HEADER_SIZE = 9;
+
+    // The mappers of each codec, a result is read with the codec of its file
+    private final Map<NotebookFile.Codec, ObjectReader> readers =
+            new EnumMap<>(NotebookFile.Codec.class);
+    private final Map<NotebookFile.Codec, ObjectWriter> writers =
+            new EnumMap<>(NotebookFile.Codec.class);
+    private final Map<NotebookFile.Codec, ObjectReader> deltaReaders =
+            new EnumMap<>(NotebookFile.Codec.class);
+    private final Map<NotebookFile.Codec, ObjectWriter> deltaWriters =
+            new EnumMap<>(NotebookFile.Codec.class);
+    private String resultsDataDirectory;
+    private final AtomicFileWriter writer = AtomicFileWriter.instance();
+    private NotebookFile.Codec codec;
+    private NotebookFile.Compression compression;
+
+    // Guard the results of each notebook, keyed by the notebook id
+    private final Striped<ReadWriteLock> locks =
+            Striped.readWriteLock(LOCK_STRIPES);
+
+    // The end of the valid records of each delta file, keyed by the path
+    private final Map<String, Long> deltaEnds = new ConcurrentHashMap<>();
+
+    private final Counter compactions = StudioMetrics.counter(
+            FileResultRepository.class, "delta", "compactions");
+
+    /**
+     * Instantiates a new File result repository.
+     */
+    public FileResultRepository() {
+        initResultRepository();
+    }
+
+    private void initResultRepository() {
+        StudioConfiguration configuration = StudioConfiguration.getInstance();
+        resultsDataDirectory = configuration.getResultsDirectory();
+        codec = NotebookFile.Codec.fromName(configuration.getStoreCodec());
+        compression = NotebookFile.Compression.fromName(
+                      configuration.getStoreCompression());
+        for (NotebookFile.Codec c : NotebookFile.Codec.values()) {
+            ObjectMapper mapper = c == NotebookFile.Codec.JSON ?
+                                  ObjectMapperProvider.mapper() :
+                                  c.newMapper();
+            readers.put(c, mapper.readerFor(Result.class));
+            writers.put(c, mapper.writerFor(Result.class));
+            deltaReaders.put(c, mapper.readerFor(ResultDelta.class));
+            deltaWriters.put(c, mapper.writerFor(ResultDelta.class));
+        }
+        Preconditions.checkNotNull(resultsDataDirectory);
+
+        LOG.info("resultsDataDirectory is: {}", resultsDataDirectory);
+        File dir = new File(resultsDataDirectory);
+        if (!dir.exists()) {
+            dir.mkdirs();
+        }
+        Preconditions.checkArgument(dir.exists() && dir.isDirectory());
+        // Left by a crash in the middle of writing
+        AtomicFileWriter.deleteTemps(dir.toPath());
+    }
+
+    private Lock readLock(String notebookId) {
+        return this.locks.get(notebookId).readLock();
+    }
+
+    private Lock writeLock(String notebookId) {
+        return this.locks.get(notebookId).writeLock();
+    }
+
+    private File deltaFile(String notebookId, String cellId) {
+        return FileUtils.getFile(resultsDataDirectory, notebookId,
+                                 cellId + DELTA_SUFFIX);
+    }
+
+    @Override
+    public Result getResult(String notebookId, String cellId) {
+        Lock readLock = this.readLock(notebookId);
+        readLock.lock();
+        try {
+            return this.readResult(notebookId, cellId);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    private Result readResult(String notebookId, String cellId) {
+        File file = FileUtils.getFile(resultsDataDirectory, notebookId, cellId);
+        if (!file.exists()) {
+            return null;
+        }
+        Result result;
+        try (NotebookFile resultFile = NotebookFile.open(file.toPath(), false);
+             InputStream body = resultFile.body()) {
+            result = readers.get(resultFile.codec()).readValue(body);
+        } catch (IOException e) {
+            LOG.error("Failed to read result file: {}", file, e);
+            return null;
+        }
+
+        File deltaFile = this.deltaFile(notebookId, cellId);
+        if (!deltaFile.exists()) {
+            return result;
+        }
+        Result.Graph graph = result.getGraph();
+        List<ResultDelta> deltas = new ArrayList<>();
+        this.readDeltas(deltaFile, deltas);
+        for (ResultDelta delta : deltas) {
+            delta.getVertices().forEach(graph::addVertex);
+            delta.getEdges().forEach(graph::addEdge);
+        }
+        return result;
+    }
+
+    /**
+     * Read the valid records of the delta file.
+     *
+     * @param deltaFile the delta file
+     * @param deltas    the decoded deltas are added to it, or null to only
+     *                  check the records
+     * @return the end of the valid records
+     */
+    private long readDeltas(File deltaFile, List<ResultDelta> deltas) {
+        long end = 0L;
+        try (DataInputStream input = new DataInputStream(
+                                     new BufferedInputStream(
+                                     new FileInputStream(deltaFile)))) {
+            long size = deltaFile.length();
+            CRC32 crc = new CRC32();
+            while (true) {
+                NotebookFile.Codec deltaCodec;
+                byte[] body;
+                try {
+                    deltaCodec = NotebookFile.Codec.fromCode(input.readByte());
+                    int length = input.readInt();
+                    long checksum = input.readInt() & 0xffffffffL;
+                    if (length < 0 ||
+                        length > size - end - DELTA_HEADER_SIZE) {
+                        throw new EOFException("Incomplete delta");
+                    }
+                    body = new byte[length];
+                    input.readFully(body);
+                    crc.reset();
+                    crc.update(body, 0, length);
+                    if (crc.getValue() != checksum) {
+                        throw new IOException("Mismatched delta crc");
+                    }
+                } catch (IOException e) {
+                    if (end < size) {
+                        LOG.warn("Ignore the invalid result delta after {} " +
+                                 "of file: {}", end, deltaFile, e);
+                    }
+                    break;
+                }
+                if (deltas != null) {
+                    deltas.add(deltaReaders.get(deltaCodec).readValue(body));
+                }
+                end += DELTA_HEADER_SIZE + body.length;
+            }
+        } catch (IOException e) {
+            LOG.error("Failed to read result delta file: {}", deltaFile, e);
+        }
+        return end;
+    }
+
+    @Override
+    public void saveResult(String notebookId, String cellId, Result result) {
+        Preconditions.checkArgument(StringUtils.isNotEmpty(notebookId) &&
+                                    StringUtils.isNotEmpty(cellId));
+        Preconditions.checkNotNull(result);
+
+        Lock writeLock = this.writeLock(notebookId);
+        writeLock.lock();
+        try {
+            // The deltas of the former result are outdated
+            this.deleteDeltas(notebookId, cellId);
+            this.writeResult(notebookId, cellId, result);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void writeResult(String notebookId, String cellId,
+                             Result result) {
+        File file = FileUtils.getFile(resultsDataDirectory, notebookId, cellId);
+        try {
+            FileUtils.forceMkdir(file.getParentFile());
+            writer.write(file.toPath(), os -> {
+                NotebookFile.write(os, codec, compression, NO_SUMMARY,
+                                   out -> writers.get(codec)
+                                                 .writeValue(out, result));
+            });
+            LOG.debug("Write result file: {}", file);
+        } catch (IOException e) {
+            LOG.error("Failed to write result file: {}", file, e);
+            throw new RuntimeException(String.format(
+                      "Failed to write result file: %s", file));
+        }
+    }
+
+    @Override
+    public void appendResult(String notebookId, String cellId,
+                             List<Vertex> vertices, List<Edge> edges) {
+        Preconditions.checkArgument(StringUtils.isNotEmpty(notebookId) &&
+                                    StringUtils.isNotEmpty(cellId));
+        if ((vertices == null || vertices.isEmpty()) &&
+            (edges == null || edges.isEmpty())) {
+            return;
+        }
+
+        File file = FileUtils.getFile(resultsDataDirectory, notebookId, cellId);
+        File deltaFile = this.deltaFile(notebookId, cellId);
+        Lock writeLock = this.writeLock(notebookId);
+        writeLock.lock();
+        try {
+            Preconditions.checkState(file.exists(),
+                                     "The result of cell '%s' doesn't exist",
+                                     cellId);
+            ResultDelta delta = new ResultDelta(vertices, edges);
+            byte[] body = deltaWriters.get(codec).writeValueAsBytes(delta);
+            CRC32 crc = new CRC32();
+            crc.update(body, 0, body.length);
+            ByteBuffer buffer = ByteBuffer.allocate(DELTA_HEADER_SIZE +
+                                                    body.length);
+            buffer.put(codec.code()).putInt(body.length)
+                  .putInt((int) crc.getValue()).put(body).flip();
+
+            String path = deltaFile.getPath();
+            Long end = this.deltaEnds.get(path);
+            if (end == null || end > deltaFile.length()) {
+                end = deltaFile.exists() ?
+                      this.readDeltas(deltaFile, null) : 0L;
+            }
+            end = writer.append(deltaFile.toPath(), end, buffer);
+            this.deltaEnds.put(path, end);
+            LOG.debug("Append {} bytes to result delta file: {}",
+                      buffer.limit(), deltaFile);
+
+            if (end >= Math.max(file.length(), MIN_COMPACT_SIZE)) {
+                this.compact(notebookId, cellId);
+            }
+        } catch (IOException e) {
+            // The end is scanned again in case of a partial write
+            this.deltaEnds.remove(deltaFile.getPath());
+            LOG.error("Failed to append result delta file: {}", deltaFile, e);
+            throw new RuntimeException(String.format(
+                      "Failed to append result delta file: %s", deltaFile));
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void compact(String notebookId, String cellId) {
+        Result result = this.readResult(notebookId, cellId);
+        if (result == null) {
+            return;
+        }
+        this.writeResult(notebookId, cellId, result);
+        /*
+         * The deltas are deleted after the merged result is written, the
+         * duplicate elements are dropped when they are merged if it crashed
+         * in between.
+         */
+        this.deleteDeltas(notebookId, cellId);
+        compactions.inc();
+        LOG.debug("Compacted the result deltas of cell {}/{}", notebookId,
+                  cellId);
+    }
+
+    @Override
+    public void deleteResult(String notebookId, String cellId) {
+        File file = FileUtils.getFile(resultsDataDirectory, notebookId, cellId);
+        Lock writeLock = this.writeLock(notebookId);
+        writeLock.lock();
+        try {
+            FileUtils.deleteQuietly(file);
+            this.deleteDeltas(notebookId, cellId);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void deleteDeltas(String notebookId, String cellId) {
+        File deltaFile = this.deltaFile(notebookId, cellId);
+        FileUtils.deleteQuietly(deltaFile);
+        this.deltaEnds.remove(deltaFile.getPath());
+    }
+
+    @Override
+    public void deleteResults(String notebookId) {
+        File dir = FileUtils.getFile(resultsDataDirectory, notebookId);
+        Lock writeLock = this.writeLock(notebookId);
+        writeLock.lock();
+        try {
+            FileUtils.deleteQuietly(dir);
+            String prefix = dir.getPath() + File.separator;
+            this.deltaEnds.keySet().removeIf(path -> path.startsWith(prefix));
+        } finally {
+            writeLock.unlock();
+        }
+    }
+}
@@ -0,0 +1,376 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.baidu.hugegraph.studio.notebook.repository;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+import org.apache.commons.io.input.BoundedInputStream;
+import org.apache.commons.io.output.CloseShieldOutputStream;
+
+import com.baidu.hugegraph.studio.common.serializer.ObjectMapperProvider;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+/**
+ * The notebook file, which consists of a fixed header, the summary and the
+ * body, the readers can skip to any section by the offsets in the header:
+ *
+ * magic(4) version(1) codec(1) compression(1) reserved(1)
+ * summaryOffset(8) summaryLength(8) bodyOffset(8)
+ * summary(summaryLength)
+ * body(to the end of file)
+ *
+ * The codec is the encoding of body, json or the binary json smile, and the
+ * body is compressed by the compression, both are marked in each file, so
+ * files written with different options coexist.
+ * The summary is never compressed.
+ *
+ * The files written by former versions are still readable as version 0,
+ * the notebook files start with the summary written by DataOutput.writeUTF,
+ * and the result files are plain json.
+ */
+final class NotebookFile implements Closeable {
+
+    public static final byte VERSION = 1;
+
+    public enum Codec {
+
+        JSON((byte) 0, "json"),
+        SMILE((byte) 1, "smile");
+
+        private final byte code;
+        private final String name;
+
+        Codec(byte code, String name) {
+            this.code = code;
+            this.name = name;
+        }
+
+        public static Codec fromName(String name) {
+            for (Codec codec : values()) {
+                if (codec.name.equals(name)) {
+                    return codec;
+                }
+            }
+            throw new IllegalArgumentException(String.format(
+                      "Invalid codec '%s'", name));
+        }
+
+        public static Codec fromCode(byte code) throws IOException {
+            for (Codec codec : values()) {
+                if (codec.code == code) {
+                    return codec;
+                }
+            }
+            throw new IOException(String.format(
+                      "Unsupported notebook file codec %s", code));
+        }
+
+        public byte code() {
+            return this.code;
+        }
+
+        /**
+         * Create a mapper which encodes the body with this codec.
+         */
+        public ObjectMapper newMapper() {
+            switch (this) {
+                case SMILE:
+                    return ObjectMapperProvider.newMapper(new SmileFactory());
+                default:
+                    return ObjectMapperProvider.newMapper(new JsonFactory());
+            }
+        }
+    }
+
+    public enum Compression {
+
+        NONE((byte) 0, "none"),
+        DEFLATE((byte) 1, "deflate");
+
+        private final byte code;
+        private final String name;
+
+        Compression(byte code, String name) {
+            this.code = code;
+            this.name = name;
+        }
+
+        public static Compression fromName(String name) {
+            for (Compression compression : values()) {
+                if (compression.name.equals(name)) {
+                    return compression;
+                }
+            }
+            throw new IllegalArgumentException(String.format(
+                      "Invalid compression '%s'", name));
+        }
+
+        public static Compression fromCode(byte code) throws IOException {
+            for (Compression compression : values()) {
+                if (compression.code == code) {
+                    return compression;
+                }
+            }
+            throw new IOException(String.format(
+                      "Unsupported notebook file compression %s", code));
+        }
+
+        private OutputStream compress(OutputStream os) {
+            switch (this) {
+                case DEFLATE:
+                    return new DeflaterOutputStream(os, new Deflater(),
+                                                    BUFFER_SIZE) {
+                        @Override
+                        public void close() throws IOException {
+                            // The deflater isn't ended if it's given
+                            try {
+                                super.close();
+                            } finally {
+                                this.def.end();
+                            }
+                        }
+                    };
+                default:
+                    return os;
+            }
+        }
+
+        private InputStream decompress(InputStream is) {
+            switch (this) {
+                case DEFLATE:
+                    return new InflaterInputStream(is, new Inflater(),
+                                                   BUFFER_SIZE) {
+                        @Override
+                        public void close() throws IOException {
+                            // The inflater isn't ended if it's given
+                            this.inf.end();
+                            super.close();
+                        }
+                    };
+                default:
+                    return is;
+            }
+        }
+    }
+
+    private static final int BUFFER_SIZE = 8192;
+    private static final byte[] MAGIC = "HGNB".getBytes(
+                                        StandardCharsets.US_ASCII);
+    private static final byte LEGACY_VERSION = 0;
+    private static final int HEADER_SIZE = 32;
+
+    private final FileChannel channel;
+    private final byte version;
+    private final Codec codec;
+    private final Compression compression;
+    private final long summaryOffset;
+    private final long summaryLength;
+    private final long bodyOffset;
+    private final long bodyLength;
+
+    /**
+     * Write a notebook file to the stream.
+     *
+     * @param os          the stream of file
+     * @param codec       the codec of the body
+     * @param compression the compression of the body
+     * @param summary     the summary
+     * @param body        write the body to the stream
+     */
+    public static void write(OutputStream os, Codec codec,
+                             Compression compression, byte[] summary,
+                             AtomicFileWriter.Body body) throws IOException {
+        DataOutputStream out = new DataOutputStream(os);
+        out.write(MAGIC);
+        out.writeByte(VERSION);
+        out.writeByte(codec.code);
+        out.writeByte(compression.code);
+        out.writeByte(0);
+        out.writeLong(HEADER_SIZE);
+        out.writeLong(summary.length);
+        out.writeLong(HEADER_SIZE + summary.length);
+        out.write(summary);
+        out.flush();
+
+        // Finish the compression without closing the file
+        OutputStream bodyStream = compression.compress(
+                                  new CloseShieldOutputStream(os));
+        body.write(bodyStream);
+        bodyStream.close();
+    }
+
+    /**
+     * Open a notebook file.
+     */
+    public static NotebookFile open(Path path) throws IOException {
+        return open(path, true);
+    }
+
+    /**
+     * Open a file with the notebook file format.
+     *
+     * @param path       the file
+     * @param summarized whether the file written by former versions starts
+     *                   with a summary, otherwise it's the plain body
+     */
+    public static NotebookFile open(Path path, boolean summarized)
+                                    throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            return new NotebookFile(channel, summarized);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private NotebookFile(FileChannel channel, boolean summarized)
+                         throws IOException {
+        this.channel = channel;
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        read(channel, header, 0L);
+        byte[] magic = new byte[MAGIC.length];
+        if (header.limit() == HEADER_SIZE) {
+            header.get(magic);
+        }
+        if (Arrays.equals(magic, MAGIC)) {
+            this.version = header.get(4);
+            if (this.version > VERSION) {
+                throw new IOException(String.format(
+                          "Unsupported notebook file version %s",
+                          this.version));
+            }
+            this.codec = Codec.fromCode(header.get(5));
+            this.compression = Compression.fromCode(header.get(6));
+            this.summaryOffset = header.getLong(8);
+            this.summaryLength = header.getLong(16);
+            this.bodyOffset = header.getLong(24);
+        } else if (!summarized) {
+            this.version = LEGACY_VERSION;
+            this.codec = Codec.JSON;
+            this.compression = Compression.NONE;
+            this.summaryOffset = 0L;
+            this.summaryLength = 0L;
+            this.bodyOffset = 0L;
+        } else {
+            // The length of summary and body are written before themselves
+            if (header.limit() < 2) {
+                throw new EOFException("Invalid notebook file");
+            }
+            this.version = LEGACY_VERSION;
+            this.codec = Codec.JSON;
+            this.compression = Compression.NONE;
+            this.summaryOffset = 2L;
+            this.summaryLength = header.getShort(0) & 0xffff;
+            ByteBuffer length = ByteBuffer.allocate(4);
+            read(channel, length, this.summaryOffset + this.summaryLength);
+            if (length.limit() < 4) {
+                throw new EOFException("Invalid notebook file");
+            }
+            this.bodyOffset = this.summaryOffset + this.summaryLength + 4;
+        }
+        this.bodyLength = channel.size() - this.bodyOffset;
+    }
+
+    public byte version() {
+        return this.version;
+    }
+
+    public Codec codec() {
+        return this.codec;
+    }
+
+    public Compression compression() {
+        return this.compression;
+    }
+
+    public long bodyLength() {
+        return this.bodyLength;
+    }
+
+    /**
+     * Gets the summary as UTF-8 json.
+     */
+    public InputStream summary() throws IOException {
+        if (this.version == LEGACY_VERSION && this.summaryOffset > 0L) {
+            // It's modified UTF-8 rather than UTF-8
+            this.channel.position(0L);
+            DataInputStream input = new DataInputStream(
+                                    Channels.newInputStream(this.channel));
+            return new ByteArrayInputStream(input.readUTF().getBytes(
+                                            StandardCharsets.UTF_8));
+        }
+        return this.section(this.summaryOffset, this.summaryLength);
+    }
+
+    /**
+     * Gets the body encoded by the codec, it has been decompressed.
+     */
+    public InputStream body() throws IOException {
+        return this.compression.decompress(this.section(this.bodyOffset,
+                                                        this.bodyLength));
+    }
+
+    private InputStream section(long offset, long length) throws IOException {
+        this.channel.position(offset);
+        BoundedInputStream input = new BoundedInputStream(
+                                   Channels.newInputStream(this.channel),
+                                   length);
+        input.setPropagateClose(false);
+        return input;
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.channel.close();
+    }
+
+    private static void read(FileChannel channel, ByteBuffer buffer,
+                             long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                break;
+            }
+            position += read;
+        }
+        buffer.flip();
+    }
+}
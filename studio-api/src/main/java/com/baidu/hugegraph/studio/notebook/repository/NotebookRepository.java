@@ -67,6 +67,16 @@ public interface NotebookRepository {
      */
     Notebook getNotebook(String notebookId);
 
+    /**
+     * Gets notebook, the results of cells are loaded only if withResults is
+     * true, otherwise they can be got from the result repository on demand.
+     *
+     * @param notebookId  the notebook id
+     * @param withResults whether to load the results of cells
+     * @return the notebook
+     */
+    Notebook getNotebook(String notebookId, boolean withResults);
+
     /**
      * Add cell to notebook notebook cell.
      *
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.baidu.hugegraph.studio.notebook.repository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.baidu.hugegraph.structure.graph.Edge;
+import com.baidu.hugegraph.structure.graph.Vertex;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * The vertices and edges appended to a result, it's public for the
+ * generated accessors of jackson.
+ */
+public class ResultDelta {
+
+    @JsonProperty("vertices")
+    private List<Vertex> vertices;
+
+    @JsonProperty("edges")
+    private List<Edge> edges;
+
+    public ResultDelta() {
+        this(null, null);
+    }
+
+    public ResultDelta(List<Vertex> vertices, List<Edge> edges) {
+        this.vertices = vertices == null ? new ArrayList<>() : vertices;
+        this.edges = edges == null ? new ArrayList<>() : edges;
+    }
+
+    public List<Vertex> getVertices() {
+        return this.vertices;
+    }
+
+    public void setVertices(List<Vertex> vertices) {
+        this.vertices = vertices;
+    }
+
+    public List<Edge> getEdges() {
+        return this.edges;
+    }
+
+    public void setEdges(List<Edge> edges) {
+        this.edges = edges;
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.baidu.hugegraph.studio.notebook.repository;
+
+import java.util.List;
+
+import com.baidu.hugegraph.structure.graph.Edge;
+import com.baidu.hugegraph.structure.graph.Vertex;
+import com.baidu.hugegraph.studio.notebook.model.Result;
+
+public interface ResultRepository {
+
+    /**
+     * Gets the result of a notebook cell.
+     *
+     * @param notebookId the notebook id
+     * @param cellId     the cell id
+     * @return the result, null if the cell has not been executed
+     */
+    Result getResult(String notebookId, String cellId);
+
+    /**
+     * Save the result of a notebook cell, the former one is replaced.
+     *
+     * @param notebookId the notebook id
+     * @param cellId     the cell id
+     * @param result     the result
+     */
+    void saveResult(String notebookId, String cellId, Result result);
+
+    /**
+     * Append the vertices and edges expanded from the graph of a result,
+     * they are merged into the graph when the result is got.
+     *
+     * @param notebookId the notebook id
+     * @param cellId     the cell id
+     * @param vertices   the vertices to add
+     * @param edges      the edges to add
+     */
+    void appendResult(String notebookId, String cellId,
+                      List<Vertex> vertices, List<Edge> edges);
+
+    /**
+     * Delete the result of a notebook cell.
+     *
+     * @param notebookId the notebook id
+     * @param cellId     the cell id
+     */
+    void deleteResult(String notebookId, String cellId);
+
+    /**
+     * Delete the results of all cells of a notebook.
+     *
+     * @param notebookId the notebook id
+     */
+    void deleteResults(String notebookId);
+}
@@ -0,0 +1,316 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.baidu.hugegraph.studio.notebook.service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.springframework.stereotype.Repository;
+
+import com.baidu.hugegraph.structure.graph.Edge;
+import com.baidu.hugegraph.structure.graph.Vertex;
+import com.baidu.hugegraph.studio.common.errors.StudioError;
+import com.baidu.hugegraph.studio.config.StudioConfiguration;
+import com.baidu.hugegraph.studio.metrics.StudioMetrics;
+import com.baidu.hugegraph.studio.notebook.model.CellJob;
+import com.baidu.hugegraph.studio.notebook.model.Result;
+import com.baidu.hugegraph.util.Log;
+import com.codahale.metrics.Gauge;
+import com.google.common.base.Preconditions;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Execute the cells as jobs in background, the clients poll the status of
+ * a job by its id until it's finished, then fetch the result.
+ *
+ * The number of threads and waiting jobs are bounded, and so is the number
+ * of unfinished jobs of each connection, the jobs beyond the limits are
+ * rejected rather than queued.
+ *
+ * A job is cancelled by interrupting its thread, the execution stops at the
+ * next stage reported to its listener. The result is saved only if the job
+ * isn't cancelled, and the job isn't interrupted once it starts saving, so
+ * the repository is never interrupted while writing.
+ */
+@Repository("cellJobExecutor")
+public class CellJobExecutor {
+
+    private static final Logger LOG = Log.logger(CellJobExecutor.class);
+
+    // The finished jobs are kept for a while to be polled
+    private static final int MAX_JOBS = 1000;
+    private static final long JOB_EXPIRE_MINUTES = 30L;
+
+    private final ThreadPoolExecutor executor;
+    private final int connectionConcurrency;
+    private final ConcurrentMap<String, Semaphore> permits;
+    private final Cache<String, JobFuture> jobs;
+
+    public CellJobExecutor() {
+        this(StudioConfiguration.getInstance().getJobThreads(),
+             StudioConfiguration.getInstance().getJobQueueSize(),
+             StudioConfiguration.getInstance().getJobConnectionConcurrency());
+    }
+
+    public CellJobExecutor(int threads, int queueSize,
+                           int connectionConcurrency) {
+        Preconditions.checkArgument(threads > 0 && queueSize > 0 &&
+                                    connectionConcurrency > 0);
+        this.executor = new ThreadPoolExecutor(
+                threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize),
+                new ThreadFactoryBuilder().setNameFormat("cell-job-%d")
+                                          .setDaemon(true).build());
+        this.connectionConcurrency = connectionConcurrency;
+        this.permits = new ConcurrentHashMap<>();
+        this.jobs = CacheBuilder.newBuilder()
+                                .maximumSize(MAX_JOBS)
+                                .expireAfterAccess(JOB_EXPIRE_MINUTES,
+                                                   TimeUnit.MINUTES)
+                                .build();
+        StudioMetrics.gauge((Gauge<Integer>) this.executor::getActiveCount,
+                            CellJobExecutor.class, "running");
+        StudioMetrics.gauge((Gauge<Integer>) () -> this.executor.getQueue()
+                                                                .size(),
+                            CellJobExecutor.class, "pending");
+    }
+
+    /**
+     * Submit a cell to be executed in background.
+     *
+     * @param notebookId   the notebook of cell
+     * @param cellId       the cell
+     * @param connectionId the connection the cell is executed on
+     * @param task         execute the cell and return the result, reporting
+     *                     the stages to the listener of job
+     * @return the job, which is pending or running
+     * @throws StudioError if there are too many jobs
+     */
+    public CellJob submit(String notebookId, String cellId,
+                          String connectionId, Task task) {
+        Semaphore permits = this.permits.computeIfAbsent(
+                            String.valueOf(connectionId),
+                            k -> new Semaphore(this.connectionConcurrency));
+        if (!permits.tryAcquire()) {
+            throw StudioError.serviceUnavailable(String.format(
+                  "There are already %s unfinished jobs of connection '%s'",
+                  this.connectionConcurrency, connectionId));
+        }
+        CellJob job = new CellJob(UUID.randomUUID().toString(), notebookId,
+                                  cellId, connectionId);
+        JobFuture future = new JobFuture(job, task, permits);
+        this.jobs.put(job.getId(), future);
+        try {
+            this.executor.execute(future);
+        } catch (RejectedExecutionException e) {
+            this.jobs.invalidate(job.getId());
+            future.cancel(false);
+            throw StudioError.serviceUnavailable(
+                  "Too many jobs are waiting to be executed");
+        }
+        return job;
+    }
+
+    /**
+     * Gets a job.
+     *
+     * @param jobId the job id
+     * @return the job
+     * @throws StudioError if the job doesn't exist or has expired
+     */
+    public CellJob get(String jobId) {
+        return this.future(jobId).job;
+    }
+
+    /**
+     * Gets the result of a successful job.
+     *
+     * @param jobId the job id
+     * @return the result, null if the job hasn't succeeded
+     */
+    public Result result(String jobId) {
+        JobFuture future = this.future(jobId);
+        if (future.job.getStatus() != CellJob.Status.SUCCESS) {
+            return null;
+        }
+        return future.result;
+    }
+
+    /**
+     * Cancel a job, it's ignored if the job has been finished or is saving
+     * its result.
+     *
+     * @param jobId the job id
+     * @return the job
+     */
+    public CellJob cancel(String jobId) {
+        JobFuture future = this.future(jobId);
+        if (future.job.cancel("Cancelled by user")) {
+            future.cancel(true);
+        }
+        return future.job;
+    }
+
+    private JobFuture future(String jobId) {
+        Preconditions.checkArgument(jobId != null);
+        JobFuture future = this.jobs.getIfPresent(jobId);
+        if (future == null) {
+            throw StudioError.notFound("CellJob", jobId);
+        }
+        return future;
+    }
+
+    /**
+     * Execute a cell as a job.
+     */
+    @FunctionalInterface
+    public interface Task {
+
+        Result execute(ExecutionListener listener) throws Exception;
+    }
+
+    /**
+     * The listener to stop the execution of a cancelled job once a stage
+     * is completed, and to skip saving the result of it.
+     */
+    private static class JobListener implements ExecutionListener {
+
+        private final CellJob job;
+
+        public JobListener(CellJob job) {
+            this.job = job;
+        }
+
+        @Override
+        public void onData(Result.Type type, List<Object> data) {
+            checkInterrupted();
+        }
+
+        @Override
+        public void onVertices(List<Vertex> vertices) {
+            checkInterrupted();
+        }
+
+        @Override
+        public void onEdges(List<Edge> edges) {
+            checkInterrupted();
+        }
+
+        @Override
+        public void onStyles(Map<String, Object> styles) {
+            checkInterrupted();
+        }
+
+        @Override
+        public void onResult(Result result) {
+            if (!this.job.save()) {
+                throw new CancellationException("The cell job is cancelled");
+            }
+        }
+
+        private static void checkInterrupted() {
+            if (Thread.currentThread().isInterrupted()) {
+                throw new CancellationException("The cell job is cancelled");
+            }
+        }
+    }
+
+    private static class JobFuture extends FutureTask<Result> {
+
+        private final CellJob job;
+        private final Semaphore permits;
+        // Claimed by the task once it runs, it releases the permit then
+        private final AtomicBoolean claimed;
+        private volatile Result result;
+
+        public JobFuture(CellJob job, Task task, Semaphore permits) {
+            this(job, task, permits, new AtomicBoolean());
+        }
+
+        private JobFuture(CellJob job, Task task, Semaphore permits,
+                          AtomicBoolean claimed) {
+            super(() -> {
+                if (!claimed.compareAndSet(false, true)) {
+                    // Cancelled before running and the permit is released
+                    return null;
+                }
+                try {
+                    if (!job.start()) {
+                        // Cancelled while pending
+                        return null;
+                    }
+                    return task.execute(new JobListener(job));
+                } finally {
+                    /*
+                     * The cancelled task keeps running until the gremlin
+                     * returns, which can't be aborted, so hold the permit
+                     * of connection until then.
+                     */
+                    permits.release();
+                }
+            });
+            this.job = job;
+            this.permits = permits;
+            this.claimed = claimed;
+        }
+
+        @Override
+        protected void set(Result result) {
+            this.result = result;
+            this.job.finish(CellJob.Status.SUCCESS, null);
+            super.set(result);
+        }
+
+        @Override
+        protected void setException(Throwable e) {
+            if (e instanceof CancellationException) {
+                this.job.finish(CellJob.Status.CANCELLED, e.getMessage());
+            } else {
+                LOG.error("Failed to execute cell {}/{}",
+                          this.job.getNotebookId(), this.job.getCellId(), e);
+                this.job.finish(CellJob.Status.FAILED,
+                                String.valueOf(e.getMessage()));
+            }
+            super.setException(e);
+        }
+
+        @Override
+        protected void done() {
+            // The task never runs if cancelled while pending or rejected
+            if (this.claimed.compareAndSet(false, true)) {
+                this.permits.release();
+            }
+        }
+    }
+}
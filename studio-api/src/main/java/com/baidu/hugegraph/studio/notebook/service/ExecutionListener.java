@@ -0,0 +1,77 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.baidu.hugegraph.studio.notebook.service;
+
+import java.util.List;
+import java.util.Map;
+
+import com.baidu.hugegraph.structure.graph.Edge;
+import com.baidu.hugegraph.structure.graph.Vertex;
+import com.baidu.hugegraph.studio.notebook.model.Result;
+
+/**
+ * Receive the partial results of a cell execution as soon as each stage
+ * is completed, all methods are no-op by default.
+ */
+public interface ExecutionListener {
+
+    ExecutionListener NONE = new ExecutionListener() {};
+
+    /**
+     * The original data of gremlin (or markdown) is ready.
+     *
+     * @param type the result type
+     * @param data the original data
+     */
+    default void onData(Result.Type type, List<Object> data) {
+    }
+
+    /**
+     * A batch of vertices is ready.
+     *
+     * @param vertices the vertices
+     */
+    default void onVertices(List<Vertex> vertices) {
+    }
+
+    /**
+     * A batch of edges is ready.
+     *
+     * @param edges the edges
+     */
+    default void onEdges(List<Edge> edges) {
+    }
+
+    /**
+     * The styles of graph is ready.
+     *
+     * @param styles the styles
+     */
+    default void onStyles(Map<String, Object> styles) {
+    }
+
+    /**
+     * The result is complete and is going to be saved.
+     *
+     * @param result the result
+     */
+    default void onResult(Result result) {
+    }
+}
@@ -28,19 +28,25 @@ import static com.baidu.hugegraph.studio.notebook.model.Result.Type.PATH;
 import static com.baidu.hugegraph.studio.notebook.model.Result.Type.SINGLE;
 import static com.baidu.hugegraph.studio.notebook.model.Result.Type.VERTEX;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.stream.Collectors;
 
 import javax.ws.rs.Consumes;
 import javax.ws.rs.DELETE;
+import javax.ws.rs.DefaultValue;
 import javax.ws.rs.GET;
 import javax.ws.rs.POST;
 import javax.ws.rs.PUT;
@@ -52,32 +58,46 @@ import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 
 import org.apache.commons.lang3.StringUtils;
+import org.glassfish.jersey.media.sse.EventOutput;
+import org.glassfish.jersey.media.sse.OutboundEvent;
+import org.glassfish.jersey.media.sse.SseFeature;
 import org.slf4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import com.baidu.hugegraph.api.gremlin.GremlinRequest;
 import com.baidu.hugegraph.driver.GremlinManager;
 import com.baidu.hugegraph.driver.HugeClient;
-import com.baidu.hugegraph.driver.SchemaManager;
 import com.baidu.hugegraph.structure.graph.Edge;
 import com.baidu.hugegraph.structure.graph.Vertex;
 import com.baidu.hugegraph.structure.gremlin.Result;
 import com.baidu.hugegraph.structure.gremlin.ResultSet;
 import com.baidu.hugegraph.structure.schema.VertexLabel;
+import com.baidu.hugegraph.studio.common.errors.StudioError;
+import com.baidu.hugegraph.studio.common.serializer.SmileProvider;
 import com.baidu.hugegraph.studio.config.NodeColorOption;
 import com.baidu.hugegraph.studio.config.StudioConfiguration;
+import com.baidu.hugegraph.studio.connections.client.HugeClientPool;
+import com.baidu.hugegraph.studio.connections.client.SchemaCache;
 import com.baidu.hugegraph.studio.connections.model.Connection;
 import com.baidu.hugegraph.studio.connections.repository.ConnectionRepository;
+import com.baidu.hugegraph.studio.gremlin.GremlinBatchExecutor;
 import com.baidu.hugegraph.studio.gremlin.GremlinOptimizer;
+import com.baidu.hugegraph.studio.gremlin.GremlinResultCache;
+import com.baidu.hugegraph.studio.notebook.model.CellJob;
 import com.baidu.hugegraph.studio.notebook.model.Notebook;
 import com.baidu.hugegraph.studio.notebook.model.NotebookCell;
+import com.baidu.hugegraph.studio.notebook.model.ResultPage;
 import com.baidu.hugegraph.studio.notebook.model.vis.EdgeColor;
 import com.baidu.hugegraph.studio.notebook.model.vis.Font;
 import com.baidu.hugegraph.studio.notebook.model.vis.VisNode;
 import com.baidu.hugegraph.studio.notebook.repository.NotebookRepository;
+import com.baidu.hugegraph.studio.notebook.repository.ResultRepository;
 import com.baidu.hugegraph.util.Log;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Iterators;
 import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 /**
  * Notebook service for Jersey Restful Api
@@ -91,14 +111,44 @@ public class NotebookService {
     // The max number of one vertex related edge.
     // Vis can deal with about 200 edges.
     private static final int MAX_EDGES_PER_VERTEX = 200;
+    private static final int MAX_PAGE_SIZE = 10000;
 
+    /*
+     * The internal queries are fixed scripts with the ids bound, so that
+     * they are compiled only once and then hit the script cache of server.
+     */
+    static final String VERTICES_GREMLIN = "g.V(ids.toArray())";
+    static final String EDGES_GREMLIN = "g.V(ids.toArray())" +
+                                        ".local(bothE().where(otherV()" +
+                                        ".hasId(within(allIds)))" +
+                                        ".limit(degree)).dedup()" +
+                                        ".limit(total)";
+    static final String ADJACENT_EDGES_GREMLIN = "g.V(vertexId).bothE()";
+
+    private static final ExecutorService STREAM_EXECUTOR =
+            Executors.newFixedThreadPool(
+                    StudioConfiguration.getInstance().getStreamThreads(),
+                    new ThreadFactoryBuilder().setNameFormat("cell-stream-%d")
+                                              .setDaemon(true).build());
 
     @Autowired
     private NotebookRepository notebookRepository;
     @Autowired
+    private ResultRepository resultRepository;
+    @Autowired
     private ConnectionRepository connectionRepository;
     @Autowired
     private GremlinOptimizer gremlinOptimizer;
+    @Autowired
+    private HugeClientPool hugeClientPool;
+    @Autowired
+    private SchemaCache schemaCache;
+    @Autowired
+    private GremlinBatchExecutor gremlinBatchExecutor;
+    @Autowired
+    private GremlinResultCache gremlinResultCache;
+    @Autowired
+    private CellJobExecutor cellJobExecutor;
 
     private final StudioConfiguration conf = StudioConfiguration.getInstance();
 
@@ -108,12 +158,16 @@ public class NotebookService {
      * @return the notebooks
      */
     @GET
-    @Produces(MediaType.APPLICATION_JSON)
+    @Produces({MediaType.APPLICATION_JSON,
+               SmileProvider.APPLICATION_SMILE})
     public Response getNotebooks() {
         List<Notebook> notebookList = notebookRepository.getNotebooks();
+        // Many notebooks share the same connection, read it only once
+        Map<String, Connection> connections = new HashMap<>();
         notebookList.forEach(notebook -> {
-            Connection connection =
-                    connectionRepository.get(notebook.getConnectionId());
+            Connection connection = connections.computeIfAbsent(
+                                    notebook.getConnectionId(),
+                                    connectionRepository::get);
             notebook.setConnection(connection);
         });
         return Response.status(200).entity(notebookList).build();
@@ -123,14 +177,21 @@ public class NotebookService {
      * Gets notebook.
      *
      * @param notebookId the notebook id
+     * @param withResults whether to return the results of cells, they can
+     *                    be got by the cell result API one by one if not
      * @return the notebook
      */
     @GET
     @Path("{notebookId}")
-    @Produces(MediaType.APPLICATION_JSON)
-    public Response getNotebook(@PathParam("notebookId") String notebookId) {
+    @Produces({MediaType.APPLICATION_JSON,
+               SmileProvider.APPLICATION_SMILE})
+    public Response getNotebook(@PathParam("notebookId") String notebookId,
+                                @DefaultValue("true")
+                                @QueryParam("withResults")
+                                boolean withResults) {
         Preconditions.checkArgument(StringUtils.isNotEmpty(notebookId));
-        Notebook notebook = notebookRepository.getNotebook(notebookId);
+        Notebook notebook = notebookRepository.getNotebook(notebookId,
+                                                           withResults);
         Connection connection =
                 connectionRepository.get(notebook.getConnectionId());
         notebook.setConnection(connection);
@@ -144,7 +205,8 @@ public class NotebookService {
      * @return the response
      */
     @POST
-    @Produces(MediaType.APPLICATION_JSON)
+    @Produces({MediaType.APPLICATION_JSON,
+               SmileProvider.APPLICATION_SMILE})
     @Consumes(MediaType.APPLICATION_JSON)
     public Response addNotebook(Notebook notebook) {
         Preconditions.checkNotNull(notebook);
@@ -166,7 +228,8 @@ public class NotebookService {
      */
     @DELETE
     @Path("{notebookId}")
-    @Produces(MediaType.APPLICATION_JSON)
+    @Produces({MediaType.APPLICATION_JSON,
+               SmileProvider.APPLICATION_SMILE})
     public Response deleteNotebook(@PathParam("notebookId") String notebookId) {
         Preconditions.checkArgument(StringUtils.isNotEmpty(notebookId));
         notebookRepository.deleteNotebook(notebookId);
@@ -182,7 +245,8 @@ public class NotebookService {
      */
     @PUT
     @Path("{notebookId}")
-    @Produces(MediaType.APPLICATION_JSON)
+    @Produces({MediaType.APPLICATION_JSON,
+               SmileProvider.APPLICATION_SMILE})
     @Consumes(MediaType.APPLICATION_JSON)
     public Response editNotebook(@PathParam("notebookId") String notebookId,
                                  Notebook notebook) {
@@ -193,7 +257,7 @@ public class NotebookService {
          * operation to do it. It can avoid transmitting big data.
          */
         Notebook notebookLocal =
-                notebookRepository.getNotebook(notebook.getId());
+                notebookRepository.getNotebook(notebook.getId(), false);
         if (notebook.getName() != null) {
             notebookLocal.setName(notebook.getName());
         }
@@ -219,7 +283,8 @@ public class NotebookService {
      */
     @GET
     @Path("{notebookId}/cells/{cellId}")
-    @Produces(MediaType.APPLICATION_JSON)
+    @Produces({MediaType.APPLICATION_JSON,
+               SmileProvider.APPLICATION_SMILE})
     @Consumes(MediaType.APPLICATION_JSON)
     public Response getNotebookCell(@PathParam("notebookId") String notebookId,
                                     @PathParam("cellId") String cellId) {
@@ -230,6 +295,79 @@ public class NotebookService {
                        .build();
     }
 
+    /**
+     * Gets the result of notebook cell.
+     *
+     * @param notebookId The notebook id.
+     * @param cellId The cell id
+     * @return The result, no content if the cell hasn't been executed.
+     */
+    @GET
+    @Path("{notebookId}/cells/{cellId}/result")
+    @Produces({MediaType.APPLICATION_JSON,
+               SmileProvider.APPLICATION_SMILE})
+    public Response getNotebookCellResult(
+            @PathParam("notebookId") String notebookId,
+            @PathParam("cellId") String cellId) {
+        Preconditions.checkArgument(notebookId != null && cellId != null);
+        return Response.status(200)
+                       .entity(resultRepository.getResult(notebookId, cellId))
+                       .build();
+    }
+
+    /**
+     * Gets a page of the table-mode result of a gremlin cell. The page is
+     * fetched by the range of the code rather than the stored result, so
+     * any page can be fetched without the former pages:
+     *
+     * code.range(offset, offset + size + 1)
+     *
+     * One more row is fetched to know whether there is a next page.
+     *
+     * @param notebookId The notebook id.
+     * @param cellId The cell id.
+     * @param cursor The cursor of the page, the first page if absent.
+     * @param size The page size, show.limit.data by default.
+     * @return The page with the cursor of the next page.
+     */
+    @GET
+    @Path("{notebookId}/cells/{cellId}/result/page")
+    @Produces({MediaType.APPLICATION_JSON,
+               SmileProvider.APPLICATION_SMILE})
+    public Response getNotebookCellResultPage(
+            @PathParam("notebookId") String notebookId,
+            @PathParam("cellId") String cellId,
+            @QueryParam("cursor") String cursor,
+            @QueryParam("size") Integer size) {
+        Preconditions.checkArgument(notebookId != null && cellId != null);
+        int pageSize = size == null ? conf.getLimitData() : size;
+        Preconditions.checkArgument(pageSize > 0 && pageSize <= MAX_PAGE_SIZE,
+                                    "The page size must be in (0, %s]",
+                                    MAX_PAGE_SIZE);
+
+        Notebook notebook = notebookRepository.getNotebook(notebookId, false);
+        NotebookCell cell = notebook.getCellById(cellId);
+        Preconditions.checkArgument(cell != null &&
+                                    "gremlin".equals(cell.getLanguage()),
+                                    "Only the result of gremlin is pageable");
+
+        long offset = ResultPage.offset(cursor, cell.getCode());
+        String code = gremlinOptimizer.rangeOptimize(cell.getCode(), offset,
+                                                     offset + pageSize + 1);
+        if (code == null) {
+            throw StudioError.invalidRequest(String.format(
+                  "The result of '%s' isn't pageable", cell.getCode()));
+        }
+        LOG.info(code);
+
+        HugeClient hugeClient = hugeClientPool.get(notebook.getConnection());
+        ResultSet resultSet = hugeClient.gremlin().gremlin(code).execute();
+        return Response.status(200)
+                       .entity(ResultPage.of(resultSet.data(), offset,
+                                             pageSize, cell.getCode()))
+                       .build();
+    }
+
     /**
      * Add notebook cell response.
      *
@@ -240,7 +378,8 @@ public class NotebookService {
      */
     @POST
     @Path("{notebookId}/cells")
-    @Produces(MediaType.APPLICATION_JSON)
+    @Produces({MediaType.APPLICATION_JSON,
+               SmileProvider.APPLICATION_SMILE})
     @Consumes(MediaType.APPLICATION_JSON)
     public Response addNotebookCell(@PathParam("notebookId") String notebookId,
                                     @QueryParam("position") Integer position,
@@ -277,7 +416,8 @@ public class NotebookService {
      */
     @PUT
     @Path("{notebookId}/cells/{cellId}")
-    @Produces(MediaType.APPLICATION_JSON)
+    @Produces({MediaType.APPLICATION_JSON,
+               SmileProvider.APPLICATION_SMILE})
     @Consumes(MediaType.APPLICATION_JSON)
     public Response editNotebookCell(@PathParam("notebookId") String notebookId,
                                      @PathParam("cellId") String cellId,
@@ -308,7 +448,8 @@ public class NotebookService {
      */
     @PUT
     @Path("{notebookId}/cells/{cellId}/execute")
-    @Produces(MediaType.APPLICATION_JSON)
+    @Produces({MediaType.APPLICATION_JSON,
+               SmileProvider.APPLICATION_SMILE})
     @Consumes(MediaType.APPLICATION_JSON)
     public Response executeNotebookCell(@PathParam("notebookId") String notebookId,
                                         @PathParam("cellId") String cellId,
@@ -321,6 +462,181 @@ public class NotebookService {
 
         NotebookCell cell =
                 notebookRepository.editNotebookCell(notebookId, cellId, newCell);
+        com.baidu.hugegraph.studio.notebook.model.Result result =
+                this.executeCell(notebookId, cell, ExecutionListener.NONE);
+        return Response.status(200).entity(result).build();
+    }
+
+    /**
+     * The streaming variant of @see executeNotebookCell(String, String,
+     * NotebookCell), the result is pushed as server-sent events once each
+     * stage is completed:
+     *
+     * data -> vertices* -> edges* -> styles -> result
+     *
+     * The 'vertices' and 'edges' events may be sent several times, one for
+     * each batch. The 'result' event carries the result without data and
+     * graph, and an 'error' event is sent instead if the execution failed.
+     *
+     * @param notebookId The notebookId of current notebook.
+     * @param cellId The cellId of the current notebook.
+     * @param newCell The cell value of the current cell.
+     * @return The event output of the execution.
+     */
+    @PUT
+    @Path("{notebookId}/cells/{cellId}/execute/stream")
+    @Produces(SseFeature.SERVER_SENT_EVENTS)
+    @Consumes(MediaType.APPLICATION_JSON)
+    public EventOutput executeNotebookCellStream(
+            @PathParam("notebookId") String notebookId,
+            @PathParam("cellId") String cellId,
+            NotebookCell newCell) {
+
+        Preconditions.checkArgument(notebookId != null &&
+                                    newCell != null &&
+                                    cellId != null &&
+                                    cellId.equals(newCell.getId()));
+
+        NotebookCell cell =
+                notebookRepository.editNotebookCell(notebookId, cellId, newCell);
+        EventOutput output = new EventOutput();
+        EventOutputListener listener = new EventOutputListener(output);
+        STREAM_EXECUTOR.execute(() -> {
+            try {
+                com.baidu.hugegraph.studio.notebook.model.Result result =
+                        this.executeCell(notebookId, cell, listener);
+                Map<String, Object> summary = new HashMap<>();
+                summary.put("id", result.getId());
+                summary.put("type", result.getType());
+                summary.put("duration", result.getDuration());
+                summary.put("showNum", result.getShowNum());
+                summary.put("message", result.getMessage());
+                listener.send("result", summary);
+            } catch (Exception e) {
+                LOG.error("Failed to execute cell {}/{}", notebookId, cellId, e);
+                if (!output.isClosed()) {
+                    listener.send("error", ImmutableMap.of(
+                                  "message", String.valueOf(e.getMessage())));
+                }
+            } finally {
+                listener.close();
+            }
+        });
+        return output;
+    }
+
+    /**
+     * The asynchronous variant of @see executeNotebookCell(String, String,
+     * NotebookCell), the cell is executed as a job in background, and the
+     * job is returned at once to be polled by its id.
+     *
+     * @param notebookId The notebookId of current notebook.
+     * @param cellId The cellId of the current notebook.
+     * @param newCell The cell value of the current cell.
+     * @return The job, service unavailable if there are too many jobs.
+     */
+    @PUT
+    @Path("{notebookId}/cells/{cellId}/execute/async")
+    @Produces({MediaType.APPLICATION_JSON,
+               SmileProvider.APPLICATION_SMILE})
+    @Consumes(MediaType.APPLICATION_JSON)
+    public Response executeNotebookCellAsync(
+            @PathParam("notebookId") String notebookId,
+            @PathParam("cellId") String cellId,
+            NotebookCell newCell) {
+
+        Preconditions.checkArgument(notebookId != null &&
+                                    newCell != null &&
+                                    cellId != null &&
+                                    cellId.equals(newCell.getId()));
+
+        NotebookCell cell =
+                notebookRepository.editNotebookCell(notebookId, cellId, newCell);
+        Notebook notebook = notebookRepository.getNotebook(notebookId, false);
+        CellJob job = cellJobExecutor.submit(notebookId, cellId,
+                                             notebook.getConnectionId(),
+                                             listener -> this.executeCell(
+                                                         notebookId, cell,
+                                                         listener));
+        return Response.status(202).entity(job).build();
+    }
+
+    /**
+     * Gets the job of a cell executed asynchronously.
+     *
+     * @param notebookId The notebook id.
+     * @param jobId The job id.
+     * @return The job.
+     */
+    @GET
+    @Path("{notebookId}/jobs/{jobId}")
+    @Produces({MediaType.APPLICATION_JSON,
+               SmileProvider.APPLICATION_SMILE})
+    public Response getCellJob(@PathParam("notebookId") String notebookId,
+                               @PathParam("jobId") String jobId) {
+        return Response.status(200)
+                       .entity(this.cellJob(notebookId, jobId))
+                       .build();
+    }
+
+    /**
+     * Gets the result of a job.
+     *
+     * @param notebookId The notebook id.
+     * @param jobId The job id.
+     * @return The result if the job succeeded, otherwise the job itself,
+     *         accepted if it's unfinished or conflict if it failed or was
+     *         cancelled.
+     */
+    @GET
+    @Path("{notebookId}/jobs/{jobId}/result")
+    @Produces({MediaType.APPLICATION_JSON,
+               SmileProvider.APPLICATION_SMILE})
+    public Response getCellJobResult(
+            @PathParam("notebookId") String notebookId,
+            @PathParam("jobId") String jobId) {
+        CellJob job = this.cellJob(notebookId, jobId);
+        if (!job.getStatus().finished()) {
+            return Response.status(202).entity(job).build();
+        }
+        com.baidu.hugegraph.studio.notebook.model.Result result =
+                cellJobExecutor.result(jobId);
+        if (result == null) {
+            return Response.status(409).entity(job).build();
+        }
+        return Response.status(200).entity(result).build();
+    }
+
+    /**
+     * Cancel a job, the job which has been finished is unaffected.
+     *
+     * @param notebookId The notebook id.
+     * @param jobId The job id.
+     * @return The job.
+     */
+    @DELETE
+    @Path("{notebookId}/jobs/{jobId}")
+    @Produces({MediaType.APPLICATION_JSON,
+               SmileProvider.APPLICATION_SMILE})
+    public Response cancelCellJob(@PathParam("notebookId") String notebookId,
+                                  @PathParam("jobId") String jobId) {
+        this.cellJob(notebookId, jobId);
+        return Response.status(200)
+                       .entity(cellJobExecutor.cancel(jobId))
+                       .build();
+    }
+
+    private CellJob cellJob(String notebookId, String jobId) {
+        Preconditions.checkArgument(notebookId != null && jobId != null);
+        CellJob job = cellJobExecutor.get(jobId);
+        if (!notebookId.equals(job.getNotebookId())) {
+            throw StudioError.notFound("CellJob", jobId);
+        }
+        return job;
+    }
+
+    private com.baidu.hugegraph.studio.notebook.model.Result executeCell(
+            String notebookId, NotebookCell cell, ExecutionListener listener) {
         long startTime = System.currentTimeMillis();
 
         com.baidu.hugegraph.studio.notebook.model.Result result =
@@ -337,118 +653,174 @@ public class NotebookService {
                 }
             });
             result.setType(MARKDOWN);
+            listener.onData(result.getType(), result.getData());
         }
 
         if ("gremlin".equals(cell.getLanguage())) {
-            Notebook notebook = notebookRepository.getNotebook(notebookId);
+            this.executeGremlin(notebookId, cell, result, listener);
+        }
+
+        long endTime = System.currentTimeMillis();
+        long duration = endTime - startTime;
+        result.setDuration(duration);
+        cell.setResult(result);
 
-            // Build HugeClient from the connection info from the notebook.
-            HugeClient hugeClient = new HugeClient(
-                    notebook.getConnection().getConnectionUri(),
-                    notebook.getConnection().getGraph());
+        listener.onResult(result);
+        resultRepository.saveResult(notebookId, cell.getId(), result);
+        return result;
+    }
 
-            GremlinManager gremlinManager = hugeClient.gremlin();
+    private void executeGremlin(
+            String notebookId, NotebookCell cell,
+            com.baidu.hugegraph.studio.notebook.model.Result result,
+            ExecutionListener listener) {
+        Notebook notebook = notebookRepository.getNotebook(notebookId, false);
+        Connection connection = notebook.getConnection();
 
-            int limit = conf.getLimitData();
-            // To know whether has more record,
-            // so add "limit(limit+1)" after code.
-            String limitCode =
-                    gremlinOptimizer.limitOptimize(cell.getCode(), limit + 1);
-            LOG.info(limitCode);
+        // Get HugeClient from the connection info from the notebook.
+        HugeClient hugeClient = hugeClientPool.get(connection);
 
-            // Execute gremlin by HugeClient.
-            ResultSet resultSet = gremlinManager.gremlin(limitCode).execute();
+        GremlinManager gremlinManager = hugeClient.gremlin();
 
-            /*
-             * Gremlin result will be stored in two places, the original data is
-             * saved as a List<Object>, another is translated into a graph or a
-             * table object if possible.
-             */
-            result.setData(resultSet.data());
-
-            List<Vertex> vertices = new ArrayList<>();
-            List<Edge> edges = new ArrayList<>();
-            Map<String, Object> styles = new HashMap<>();
-            List<com.baidu.hugegraph.structure.graph.Path> paths =
-                    new ArrayList<>();
-            if (!resultSet.iterator().hasNext()) {
-                result.setType(EMPTY);
-            }
+        int limit = conf.getLimitData();
+        // To know whether has more record,
+        // so add "limit(limit+1)" after code.
+        String limitCode =
+                gremlinOptimizer.limitOptimize(cell.getCode(), limit + 1);
+        LOG.info(limitCode);
+
+        boolean cacheable = gremlinResultCache.cacheable(limitCode);
+        if (!GremlinResultCache.readOnly(limitCode)) {
+            // The graph or schema might be changed, the caches are outdated
+            gremlinResultCache.invalidate(connection);
+            schemaCache.invalidate(connection.getId());
+        } else if (cacheable && !Boolean.TRUE.equals(cell.getBypassCache()) &&
+                   gremlinResultCache.load(connection, limitCode, result)) {
+            this.notifyCachedResult(result, listener);
+            return;
+        }
 
-            result.setType(getResultType(resultSet, limit));
-            int count = 0;
+        // Execute gremlin by HugeClient.
+        ResultSet resultSet = gremlinManager.gremlin(limitCode).execute();
 
-            for (Iterator<Result> results = resultSet.iterator();
-                 results.hasNext(); ) {
+        /*
+         * Gremlin result will be stored in two places, the original data is
+         * saved as a List<Object>, another is translated into a graph or a
+         * table object if possible.
+         *
+         * Only the leading records within the byte budget are kept.
+         */
+        ResultSizeGovernor governor =
+                new ResultSizeGovernor(conf.getLimitDataBytes());
+        List<Object> data = resultSet.data();
+        int accepted = governor.accept(data, data.size());
+        boolean truncated = accepted < data.size();
+        if (truncated) {
+            data = new ArrayList<>(data.subList(0, accepted));
+        }
+        result.setData(data);
+        result.setTruncated(truncated);
+        int rows = Math.min(limit, accepted);
 
-                /*
-                 * The result might be null, and the object must be got via
-                 * Result.getObject method.
-                 */
-                Result or = results.next();
-                if (or == null) {
-                    continue;
-                }
-                Object object = or.getObject();
-                if (object instanceof Vertex) {
-                    vertices.add((Vertex) object);
-                } else if (object instanceof Edge) {
-                    edges.add((Edge) object);
-                } else if (object instanceof
-                           com.baidu.hugegraph.structure.graph.Path) {
-                    //convert Object to Path
-                    paths.add((com.baidu.hugegraph.structure.graph.Path)
-                               object);
-                }
-                if (++count >= limit) {
-                    break;
-                }
-            }
+        List<Vertex> vertices = new ArrayList<>();
+        List<Edge> edges = new ArrayList<>();
+        Map<String, Object> styles = new HashMap<>();
+        List<com.baidu.hugegraph.structure.graph.Path> paths =
+                new ArrayList<>();
+        if (!resultSet.iterator().hasNext()) {
+            result.setType(EMPTY);
+        }
+
+        result.setType(rows > 0 ? getResultType(resultSet, rows) : EMPTY);
+        listener.onData(result.getType(), result.getData());
+        int count = 0;
+
+        for (Iterator<Result> results = resultSet.iterator();
+             count < rows && results.hasNext(); ) {
 
             /*
-             * When the results contains not only vertices\edges\paths, how to
-             * deal with that?
+             * The result might be null, and the object must be got via
+             * Result.getObject method.
              */
-            switch (result.getType()) {
-                case PATH:
-                    // Extract vertices from paths ;
-                    vertices = getVertexFromPath(hugeClient, paths);
-                    edges = getEdgeFromVertex(hugeClient, vertices);
-                    styles = getGraphStyles(hugeClient);
-                    break;
-                case VERTEX:
-                    // Extract edges from vertex ;
-                    edges = getEdgeFromVertex(hugeClient, vertices);
-                    styles = getGraphStyles(hugeClient);
-                    break;
-                case EDGE:
-                    // Extract vertices from edges ;
-                    vertices = getVertexFromEdge(hugeClient, edges);
-                    styles = getGraphStyles(hugeClient);
-                    break;
-                default:
-                    break;
+            Result or = results.next();
+            if (or == null) {
+                continue;
             }
-
-            result.setGraphVertices(vertices);
-            result.setGraphEdges(edges);
-            result.setStyles(styles);
-            result.setShowNum(count);
-            String message = "";
-            if (count < resultSet.size()) {
-                message = String.format("Partial %s records are shown!", count);
+            Object object = or.getObject();
+            if (object instanceof Vertex) {
+                vertices.add((Vertex) object);
+            } else if (object instanceof Edge) {
+                edges.add((Edge) object);
+            } else if (object instanceof
+                       com.baidu.hugegraph.structure.graph.Path) {
+                //convert Object to Path
+                paths.add((com.baidu.hugegraph.structure.graph.Path)
+                           object);
             }
-            result.setMessage(message);
+            count++;
         }
 
+        /*
+         * When the results contains not only vertices\edges\paths, how to
+         * deal with that?
+         */
+        switch (result.getType()) {
+            case PATH:
+                // Extract vertices from paths ;
+                vertices = getVertexFromPath(connection, paths, listener);
+                edges = getEdgeFromVertex(connection, vertices, listener);
+                styles = getGraphStyles(connection);
+                listener.onStyles(styles);
+                break;
+            case VERTEX:
+                // Extract edges from vertex ;
+                listener.onVertices(vertices);
+                edges = getEdgeFromVertex(connection, vertices, listener);
+                styles = getGraphStyles(connection);
+                listener.onStyles(styles);
+                break;
+            case EDGE:
+                // Extract vertices from edges ;
+                listener.onEdges(edges);
+                vertices = getVertexFromEdge(connection, edges, listener);
+                styles = getGraphStyles(connection);
+                listener.onStyles(styles);
+                break;
+            default:
+                break;
+        }
 
-        long endTime = System.currentTimeMillis();
-        long duration = endTime - startTime;
-        result.setDuration(duration);
-        cell.setResult(result);
+        result.setGraphVertices(vertices);
+        result.setGraphEdges(edges);
+        result.setStyles(styles);
+        result.setShowNum(count);
+        String message = "";
+        if (truncated) {
+            message = String.format("Partial %s records are shown as the " +
+                                    "result exceeds %s bytes!", count,
+                                    governor.budget());
+        } else if (count < resultSet.size()) {
+            message = String.format("Partial %s records are shown!", count);
+        }
+        result.setMessage(message);
+        if (cacheable) {
+            gremlinResultCache.put(connection, limitCode, result);
+        }
+    }
 
-        notebookRepository.editNotebookCell(notebookId, cell);
-        return Response.status(200).entity(result).build();
+    private void notifyCachedResult(
+            com.baidu.hugegraph.studio.notebook.model.Result result,
+            ExecutionListener listener) {
+        listener.onData(result.getType(), result.getData());
+        if (result.getGraph().getVertices() != null) {
+            listener.onVertices(result.getGraph().getVertices());
+        }
+        if (result.getGraph().getEdges() != null) {
+            listener.onEdges(result.getGraph().getEdges());
+        }
+        if (result.getGraph().getStyles() != null) {
+            listener.onStyles(result.getGraph().getStyles());
+        }
     }
 
     private Type getResultType(ResultSet resultSet, int limit) {
@@ -502,7 +874,8 @@ public class NotebookService {
      */
     @GET
     @Path("{notebookId}/cells/{cellId}/gremlin")
-    @Produces(MediaType.APPLICATION_JSON)
+    @Produces({MediaType.APPLICATION_JSON,
+               SmileProvider.APPLICATION_SMILE})
     @Consumes(MediaType.APPLICATION_JSON)
     public Response executeNotebookCellGremlin(
             @PathParam("notebookId") String notebookId,
@@ -514,7 +887,7 @@ public class NotebookService {
         Preconditions.checkArgument(StringUtils.isNotBlank(label),
                                     "parameter label is blank");
 
-        Notebook notebook = notebookRepository.getNotebook(notebookId);
+        Notebook notebook = notebookRepository.getNotebook(notebookId, false);
         Preconditions.checkArgument(notebook != null);
 
         NotebookCell cell = notebook.getCellById(cellId);
@@ -526,7 +899,7 @@ public class NotebookService {
         long startTime = System.currentTimeMillis();
 
         com.baidu.hugegraph.studio.notebook.model.Result result =
-                cell.getResult();
+                resultRepository.getResult(notebookId, cellId);
 
         /*
          * This method should be executed after the method of @see
@@ -536,39 +909,33 @@ public class NotebookService {
         Preconditions.checkArgument(result != null &&
                                     result.getGraph() != null);
 
-        HugeClient hugeClient = new HugeClient(
-                                notebook.getConnection().getConnectionUri(),
-                                notebook.getConnection().getGraph());
+        HugeClient hugeClient = hugeClientPool.get(notebook.getConnection());
 
-        SchemaManager schema = hugeClient.schema();
-        VertexLabel vertexLabel = schema.getVertexLabel(label);
+        VertexLabel vertexLabel = schemaCache.get(notebook.getConnection())
+                                             .vertexLabel(label);
+        if (vertexLabel == null) {
+            // The label might be created after the schema is cached
+            schemaCache.invalidate(notebook.getConnection().getId());
+            vertexLabel = hugeClient.schema().getVertexLabel(label);
+        }
 
         Object transformedVertexId = transformId(vertexId, vertexLabel);
 
         // To know whether has more record,
         // so add "limit(limit+1)" after code.
         int limit = MAX_EDGES_PER_VERTEX + 1;
-        String code = gremlinOptimizer.limitOptimize(
-                String.format("g.V(%s).bothE()", formatId(transformedVertexId)),
-                limit);
-        LOG.info(code);
-        Set<Object> vertexIds = new HashSet<>();
+        String code = gremlinOptimizer.limitOptimize(ADJACENT_EDGES_GREMLIN,
+                                                     limit);
+        com.baidu.hugegraph.studio.notebook.model.Result.Graph graph =
+                result.getGraph();
+        Preconditions.checkArgument(graph.containsVertex(transformedVertexId));
+        // The edges of the vertex which have been shown
         Set<String> visitedEdgeIds = new HashSet<>();
-        List<Vertex> vertices = result.getGraph().getVertices();
-        List<Edge> edges = result.getGraph().getEdges();
-        vertices.stream().forEach(v -> vertexIds.add(v.id()));
-        edges.stream().forEach(e -> {
-            if (e.source().equals(transformedVertexId) ||
-                e.target().equals(transformedVertexId)) {
-                visitedEdgeIds.add(e.id());
-            }
-        });
-
-        Preconditions.checkArgument(vertexIds.contains(transformedVertexId));
+        graph.incidentEdges(transformedVertexId)
+             .forEach(e -> visitedEdgeIds.add(e.id()));
 
-        GremlinManager gremlinManager = hugeClient.gremlin();
-        ResultSet resultSet = gremlinManager.gremlin(code).execute();
-        result.setData(resultSet.data());
+        ResultSet resultSet = executeGremlin(hugeClient, code, ImmutableMap.of(
+                              "vertexId", transformedVertexId));
 
         Iterator<Result> iterator= resultSet.iterator();
 
@@ -596,7 +963,8 @@ public class NotebookService {
                                         MAX_EDGES_PER_VERTEX);
                 break;
             }
-            if (edges.size() + edgesNew.size() > conf.getLimitEdgeTotal()) {
+            if (graph.edgeSize() + edgesNew.size() >
+                conf.getLimitEdgeTotal()) {
                 message = String.format("There are more than %s edges and " +
                                         "not all are shown!",
                                         conf.getLimitEdgeTotal());
@@ -607,31 +975,26 @@ public class NotebookService {
         }
 
         List<Vertex> verticesFromEdges =
-                getVertexFromEdge(hugeClient, edgesNew);
+                getVertexFromEdge(notebook.getConnection(), edgesNew,
+                                  ExecutionListener.NONE);
         if (verticesFromEdges != null) {
-            verticesFromEdges.stream().forEach(v -> {
-                if (!vertexIds.contains(v.id())) {
-                    vertexIds.add(v.id());
+            verticesFromEdges.forEach(v -> {
+                if (graph.addVertex(v)) {
                     verticesNew.add(v);
                 }
             });
         }
 
 
-        // Save the current query result to cell.
-        vertices.addAll(verticesNew);
-        edges.addAll(edgesNew);
-        result.setGraphVertices(vertices);
-        result.setGraphEdges(edges);
-        result.setStyles(resultNew.getGraph().getStyles());
-        cell.setResult(result);
-        notebookRepository.editNotebookCell(notebookId, cell);
+        // Append the expanded elements rather than rewriting the result
+        resultRepository.appendResult(notebookId, cellId, verticesNew,
+                                      edgesNew);
 
         long endTime = System.currentTimeMillis();
         long duration = endTime - startTime;
         resultNew.setGraphVertices(verticesNew);
         resultNew.setGraphEdges(edgesNew);
-        resultNew.setStyles(getGraphStyles(hugeClient));
+        resultNew.setStyles(getGraphStyles(notebook.getConnection()));
         resultNew.setDuration(duration);
         resultNew.setMessage(message);
         return Response.status(200).entity(resultNew).build();
@@ -666,25 +1029,32 @@ public class NotebookService {
         return transformedVertexId;
     }
 
-    private String formatId(Object id) {
-        if (id instanceof String) {
-            String transformedId =
-                    StringUtils.replace(id.toString(), "\\", "\\\\");
-            transformedId = StringUtils.replace(transformedId, "\"", "\\\"");
-            transformedId = StringUtils.replace(transformedId, "'", "\\'");
-            transformedId = StringUtils.replace(transformedId, "\n", "\\n");
-            return String.format("'%s'", transformedId);
-        }
-        return id.toString();
+    /**
+     * Execute the fixed gremlin with the variables bound, the values are
+     * sent as json rather than being quoted in the code.
+     */
+    private static ResultSet executeGremlin(HugeClient hugeClient,
+                                            String code,
+                                            Map<String, Object> bindings) {
+        LOG.info("{} with {} bindings", code, bindings.keySet());
+        GremlinRequest request = new GremlinRequest(code);
+        request.bindings.putAll(bindings);
+        return hugeClient.gremlin().execute(request);
+    }
+
+    private Map<String, Object> getGraphStyles(Connection connection) {
+        return schemaCache.get(connection).styles(this::buildGraphStyles);
     }
 
-    private Map<String, Object> getGraphStyles(HugeClient hugeClient) {
+    private Map<String, Object> buildGraphStyles(SchemaCache.Schema schema) {
 
         Map<String, VisNode> groups = new HashMap<>();
         NodeColorOption colorOption =
                 new NodeColorOption(StudioConfiguration.getInstance()
                                                        .getVertexVisColor());
-        List<VertexLabel> vertexLabels = hugeClient.schema().getVertexLabels();
+        // The cached labels are shared, sort a copy of them
+        List<VertexLabel> vertexLabels =
+                new ArrayList<>(schema.vertexLabels());
         Collections.sort(vertexLabels, new Comparator<VertexLabel>() {
             @Override
             public int compare(VertexLabel o1, VertexLabel o2) {
@@ -716,8 +1086,9 @@ public class NotebookService {
         );
     }
 
-    private List<Vertex> getVertexFromEdge(HugeClient hugeClient,
-                                           List<Edge> edges) {
+    private List<Vertex> getVertexFromEdge(Connection connection,
+                                           List<Edge> edges,
+                                           ExecutionListener listener) {
         if (edges == null || edges.size() == 0) {
             return null;
         }
@@ -726,115 +1097,158 @@ public class NotebookService {
             vertexIds.add(e.source());
             vertexIds.add(e.target());
         });
-        return getVertices(hugeClient,
-                           vertexIds.stream().collect(Collectors.toList()));
+        return getVertices(connection,
+                           vertexIds.stream().collect(Collectors.toList()),
+                           listener);
 
     }
 
-    private List<Edge> getEdgeFromVertex(HugeClient hugeClient,
-                                         List<Vertex> vertices) {
+    private List<Edge> getEdgeFromVertex(Connection connection,
+                                         List<Vertex> vertices,
+                                         ExecutionListener listener) {
 
         if (vertices == null || vertices.size() == 0) {
             return null;
         }
-        List<Edge> edges = new ArrayList<>();
+        HugeClient hugeClient = hugeClientPool.get(connection);
+        int limit = conf.getLimitEdgeTotal();
 
         Set<Object> vertexIds = new HashSet<>();
         vertices.stream().forEach(v -> vertexIds.add(v.id()));
 
-        List<String> idList = new ArrayList<>();
+        List<Object> idList = new ArrayList<>();
         for (Vertex vertex : vertices) {
-            idList.add(formatId(vertex.id()));
-        }
-
-        Lists.partition(idList, GREMLIN_MAX_IDS)
-                .stream()
-                .forEach(group -> {
-                    String ids = StringUtils.join(group, ",");
-                    /*
-                     * De-duplication by edgeId. Reserve the edges only if both
-                     * srcVertexId and tgtVertexId is a member of vertices.
-                     */
-                    String code = String.format("g.V(%s).bothE().dedup()" +
-                                                ".limit(800000)", ids);
-                    LOG.info(code);
-                    ResultSet resultSet =
-                            hugeClient.gremlin().gremlin(code).execute();
-
-                    Iterator<Result> resultIterator = resultSet.iterator();
-
-                    Map<Object, Integer> edgesNumPerVertex = new HashMap<>();
-
-                    while (resultIterator.hasNext()) {
-                        Edge edge = resultIterator.next().getEdge();
-                        /*
-                         * As the results is queried by 'g.V(id).bothE()', the
-                         * source vertex of edge from results is in the set of
-                         * vertexIds. Hence, just reserve the edge which that
-                         * the target in the set of vertexIds.
-                         */
-                        Object target = edge.target();
-                        Object source = edge.source();
-                        if (vertexIds.contains(target) &&
-                            vertexIds.contains(source)) {
-                            Integer count = edgesNumPerVertex.get(source);
-                            if (count == null) {
-                                count = 0;
-                            }
-                            edgesNumPerVertex.put(source, count++);
-                            if (count > MAX_EDGES_PER_VERTEX) {
-                                break;
-                            }
-
-                            count = edgesNumPerVertex.get(target);
-                            if (count == null) {
-                                count = 0;
-                            }
-                            edgesNumPerVertex.put(target, count++);
-                            if (count > MAX_EDGES_PER_VERTEX) {
-                                break;
-                            }
-
-                            edges.add(edge);
-                            if (edges.size() >= conf.getLimitEdgeTotal()) {
-                                break;
-                            }
-                        }
-                    }
-                });
+            idList.add(vertex.id());
+        }
+        List<Object> allIds = new ArrayList<>(vertexIds);
+
+        List<Callable<List<Edge>>> tasks = new ArrayList<>();
+        for (List<Object> group : Lists.partition(idList, GREMLIN_MAX_IDS)) {
+            tasks.add(() -> getEdgesOfBatch(hugeClient, group, allIds,
+                                            vertexIds, limit));
+        }
+
+        /*
+         * The batches are executed concurrently but merged in order, so the
+         * same edges are kept if the total number exceeds the limit.
+         */
+        Map<String, Edge> edges = new LinkedHashMap<>();
+        gremlinBatchExecutor.execute(connection.getId(), tasks, batch -> {
+            List<Edge> edgesNew = new ArrayList<>();
+            for (Edge edge : batch) {
+                if (edges.size() >= limit) {
+                    break;
+                }
+                if (edges.putIfAbsent(edge.id(), edge) == null) {
+                    edgesNew.add(edge);
+                }
+            }
+            if (!edgesNew.isEmpty()) {
+                listener.onEdges(edgesNew);
+            }
+            return edges.size() < limit;
+        });
+        return new ArrayList<>(edges.values());
+    }
+
+    private List<Edge> getEdgesOfBatch(HugeClient hugeClient, List<Object> ids,
+                                       List<Object> allIds,
+                                       Set<Object> vertexIds, int limit) {
+        /*
+         * Reserve the edges only if both srcVertexId and tgtVertexId is a
+         * member of vertices, it's filtered by server to avoid transferring
+         * the edges which will be discarded. De-duplication by edgeId.
+         */
+        long startTime = System.currentTimeMillis();
+        ResultSet resultSet = executeGremlin(hugeClient, EDGES_GREMLIN,
+                                             ImmutableMap.of(
+                                             "ids", ids,
+                                             "allIds", allIds,
+                                             "degree", MAX_EDGES_PER_VERTEX,
+                                             "total", limit));
+        LOG.debug("Got {} edges of {} vertices in {} ms", resultSet.size(),
+                  ids.size(), System.currentTimeMillis() - startTime);
+
+        return filterEdges(Iterators.transform(resultSet.iterator(),
+                                               Result::getEdge),
+                           vertexIds, MAX_EDGES_PER_VERTEX, limit);
+    }
+
+    /**
+     * Keep the edges among the vertices, the edges of a vertex beyond the
+     * max degree are skipped, but the other edges are still kept.
+     *
+     * @param iterator  the edges to filter
+     * @param vertexIds the ids of the vertices
+     * @param degree    the max number of edges kept for a vertex
+     * @param limit     the max number of edges kept in total
+     * @return the edges kept
+     */
+    static List<Edge> filterEdges(Iterator<Edge> iterator,
+                                  Set<Object> vertexIds, int degree,
+                                  int limit) {
+        List<Edge> edges = new ArrayList<>();
+        Map<Object, Integer> degrees = new HashMap<>();
+        while (iterator.hasNext() && edges.size() < limit) {
+            Edge edge = iterator.next();
+            /*
+             * The server has already filtered the edges by vertexIds,
+             * check it again as the ids might be transformed by server.
+             */
+            Object source = edge.source();
+            Object target = edge.target();
+            if (!vertexIds.contains(source) || !vertexIds.contains(target)) {
+                continue;
+            }
+            int sourceDegree = degrees.getOrDefault(source, 0);
+            int targetDegree = degrees.getOrDefault(target, 0);
+            if (sourceDegree >= degree || targetDegree >= degree) {
+                continue;
+            }
+            // Only the edges kept are counted
+            degrees.put(source, sourceDegree + 1);
+            degrees.put(target, targetDegree + 1);
+            edges.add(edge);
+        }
         return edges;
     }
 
-    private List<Vertex> getVertices(HugeClient hugeClient,
-                                     List<Object> vertexIds) {
+    private List<Vertex> getVertices(Connection connection,
+                                     List<Object> vertexIds,
+                                     ExecutionListener listener) {
         if (vertexIds == null || vertexIds.size() == 0) {
             return null;
         }
-        List<Vertex> vertices = new ArrayList<>();
+        HugeClient hugeClient = hugeClientPool.get(connection);
+
+        List<Callable<List<Vertex>>> tasks = new ArrayList<>();
+        for (List<Object> group : Lists.partition(vertexIds,
+                                                  GREMLIN_MAX_IDS)) {
+            tasks.add(() -> {
+                ResultSet resultSet = executeGremlin(hugeClient,
+                                                     VERTICES_GREMLIN,
+                                                     ImmutableMap.of(
+                                                     "ids", group));
+                List<Vertex> batch = new ArrayList<>();
+                resultSet.iterator().forEachRemaining(
+                        vertex -> batch.add((Vertex) vertex.getObject()));
+                return batch;
+            });
+        }
 
-        List<String> idList = new ArrayList<>();
-        for (Object vertexId : vertexIds) {
-            idList.add(formatId(vertexId));
-        }
-        Lists.partition(idList, GREMLIN_MAX_IDS)
-                .stream()
-                .forEach(group -> {
-                    String ids = StringUtils.join(group, ",");
-                    String gremlin = String.format("g.V(%s)", ids);
-                    LOG.info(gremlin);
-                    ResultSet resultSet =
-                            hugeClient.gremlin().gremlin(gremlin).execute();
-                    Iterator<Result> results = resultSet.iterator();
-                    List<Vertex> finalVertices = vertices;
-                    results.forEachRemaining(
-                            vertex -> finalVertices.add((Vertex) vertex.getObject()));
-                });
+        List<Vertex> vertices = new ArrayList<>();
+        gremlinBatchExecutor.execute(connection.getId(), tasks, batch -> {
+            vertices.addAll(batch);
+            listener.onVertices(batch);
+            return true;
+        });
         return vertices;
     }
 
-    private List<Vertex> getVertexFromPath(HugeClient hugeClient,
+    private List<Vertex> getVertexFromPath(Connection connection,
                                            List<com.baidu.hugegraph.structure
-                                           .graph.Path> paths) {
+                                           .graph.Path> paths,
+                                           ExecutionListener listener) {
         if (paths == null) {
             return null;
         }
@@ -851,7 +1265,67 @@ public class NotebookService {
                 vertexIds.add(edge.target());
             }
         }));
-        return getVertices(hugeClient,
-                           vertexIds.stream().collect(Collectors.toList()));
+        return getVertices(connection,
+                           vertexIds.stream().collect(Collectors.toList()),
+                           listener);
+    }
+
+    /**
+     * Send the partial results as server-sent events.
+     */
+    private static class EventOutputListener implements ExecutionListener {
+
+        private final EventOutput output;
+
+        public EventOutputListener(EventOutput output) {
+            this.output = output;
+        }
+
+        @Override
+        public void onData(Type type, List<Object> data) {
+            this.send("data", ImmutableMap.of("type", type, "data", data));
+        }
+
+        @Override
+        public void onVertices(List<Vertex> vertices) {
+            if (vertices != null && !vertices.isEmpty()) {
+                this.send("vertices", vertices);
+            }
+        }
+
+        @Override
+        public void onEdges(List<Edge> edges) {
+            if (edges != null && !edges.isEmpty()) {
+                this.send("edges", edges);
+            }
+        }
+
+        @Override
+        public void onStyles(Map<String, Object> styles) {
+            this.send("styles", styles);
+        }
+
+        public void send(String name, Object data) {
+            OutboundEvent event = new OutboundEvent.Builder()
+                                  .name(name)
+                                  .mediaType(MediaType.APPLICATION_JSON_TYPE)
+                                  .data(data.getClass(), data)
+                                  .build();
+            try {
+                this.output.write(event);
+            } catch (IOException e) {
+                // Stop the execution if the client has gone away
+                throw new IllegalStateException(String.format(
+                          "Failed to send event '%s'", name), e);
+            }
+        }
+
+        public void close() {
+            try {
+                this.output.close();
+            } catch (IOException e) {
+                LOG.warn("Failed to close event output", e);
+            }
+        }
     }
 }
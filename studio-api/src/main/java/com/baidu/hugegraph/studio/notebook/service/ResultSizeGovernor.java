@@ -0,0 +1,115 @@
+/*
+ * Copyright 2017 HugeGraph Authors
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with this
+ * work for additional information regarding copyright ownership. The ASF
+ * licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.baidu.hugegraph.studio.notebook.service;
+
+import java.io.IOException;
+import java.util.List;
+
+import com.baidu.hugegraph.studio.common.serializer.ObjectMapperProvider;
+import com.baidu.hugegraph.studio.metrics.StudioMetrics;
+import com.codahale.metrics.Counter;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.google.common.base.Preconditions;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.CountingOutputStream;
+
+/**
+ * Bound the size of a result by the bytes it's serialized to, as a few
+ * records with huge properties can be as large as a lot of small ones.
+ *
+ * The records are measured one by one from the first, and the measuring
+ * stops at the first record beyond the budget, so the records after it
+ * are neither measured nor kept.
+ */
+public class ResultSizeGovernor {
+
+    private static final ObjectWriter WRITER =
+            ObjectMapperProvider.mapper().writer();
+
+    private static final Counter TRUNCATED = StudioMetrics.counter(
+            ResultSizeGovernor.class, "truncated");
+    private static final Counter TRUNCATED_BYTES = StudioMetrics.counter(
+            ResultSizeGovernor.class, "truncated", "bytes");
+
+    private final long budget;
+    private long bytes;
+
+    /**
+     * @param budget the max bytes of a result, 0 means unlimited
+     */
+    public ResultSizeGovernor(long budget) {
+        Preconditions.checkArgument(budget >= 0L,
+                                    "The budget must be >= 0, but got %s",
+                                    budget);
+        this.budget = budget;
+        this.bytes = 0L;
+    }
+
+    /**
+     * Gets the number of the leading records within the budget.
+     *
+     * @param records the records
+     * @param limit   the max number of records to measure
+     * @return the number of records to keep, less than the size of records
+     *         (and limit) if the result is truncated
+     */
+    public int accept(List<Object> records, int limit) {
+        int count = Math.min(records.size(), limit);
+        if (this.budget == 0L) {
+            return count;
+        }
+        for (int i = 0; i < count; i++) {
+            long size = estimate(records.get(i));
+            if (this.bytes + size > this.budget) {
+                TRUNCATED.inc();
+                TRUNCATED_BYTES.inc(this.bytes + size);
+                return i;
+            }
+            this.bytes += size;
+        }
+        return count;
+    }
+
+    /**
+     * Gets the bytes of the accepted records.
+     */
+    public long bytes() {
+        return this.bytes;
+    }
+
+    public long budget() {
+        return this.budget;
+    }
+
+    /**
+     * Estimate the serialized size of a record as json.
+     */
+    public static long estimate(Object record) {
+        CountingOutputStream output = new CountingOutputStream(
+                                      ByteStreams.nullOutputStream());
+        try {
+            WRITER.writeValue(output, record);
+        } catch (IOException e) {
+            throw new IllegalStateException(String.format(
+                      "Failed to serialize record '%s'", record), e);
+        }
+        return output.getCount();
+    }
+}
@@ -0,0 +1,41 @@
+package com.baidu.hugegraph.studio.common.serializer;
+
+import org.junit.Test;
+
+import com.baidu.hugegraph.studio.notebook.model.Result;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+/**
+ * Run by: mvn test -Pbenchmark
+ */
+public class ObjectMapperProviderBenchmark {
+
+    private static final int VERTICES = 1000;
+    private static final int ROUNDS = 200;
+
+    @Test
+    public void testWriteResult() throws Exception {
+        Result result = ObjectMapperProviderTest.result(VERTICES);
+        ObjectWriter plain = new ObjectMapper().writerFor(Result.class);
+        ObjectWriter shared = ObjectMapperProvider.writer(Result.class);
+
+        // Warm up both writers before measuring
+        long plainCost = this.write(plain, result);
+        long sharedCost = this.write(shared, result);
+        plainCost = this.write(plain, result);
+        sharedCost = this.write(shared, result);
+        System.out.printf("Write a result of %s vertices: %.1fus with a " +
+                          "plain mapper, %.1fus with the shared writer%n",
+                          VERTICES, plainCost / 1000.0 / ROUNDS,
+                          sharedCost / 1000.0 / ROUNDS);
+    }
+
+    private long write(ObjectWriter writer, Result result) throws Exception {
+        long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            writer.writeValueAsBytes(result);
+        }
+        return System.nanoTime() - start;
+    }
+}
@@ -0,0 +1,51 @@
+package com.baidu.hugegraph.studio.common.serializer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.baidu.hugegraph.structure.graph.Vertex;
+import com.baidu.hugegraph.studio.notebook.model.Result;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+public class ObjectMapperProviderTest {
+
+    private static final int VERTICES = 100;
+
+    @Test
+    public void testSharedMapper() {
+        ObjectMapperProvider provider = new ObjectMapperProvider();
+        Assert.assertSame(ObjectMapperProvider.mapper(),
+                          provider.getContext(Result.class));
+        Assert.assertNotSame(ObjectMapperProvider.mapper(),
+                             ObjectMapperProvider.newMapper(
+                             ObjectMapperProvider.mapper().getFactory()));
+    }
+
+    @Test
+    public void testWriteResult() throws Exception {
+        Result result = result(VERTICES);
+        ObjectWriter plain = new ObjectMapper().writerFor(Result.class);
+        ObjectWriter shared = ObjectMapperProvider.writer(Result.class);
+        Assert.assertEquals(plain.writeValueAsString(result),
+                            shared.writeValueAsString(result));
+    }
+
+    static Result result(int size) {
+        List<Vertex> vertices = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            Vertex vertex = new Vertex("person");
+            vertex.id("1:person-" + i);
+            vertex.property("name", "person-" + i);
+            vertex.property("age", i % 100);
+            vertices.add(vertex);
+        }
+        Result result = new Result();
+        result.setType(Result.Type.VERTEX);
+        result.setGraphVertices(vertices);
+        return result;
+    }
+}
@@ -0,0 +1,27 @@
+package com.baidu.hugegraph.studio.gremlin;
+
+import org.junit.Test;
+
+/**
+ * Run by: mvn test -Pbenchmark
+ */
+public class AstGremlinOptimizerBenchmark {
+
+    private final GremlinOptimizer optimizer =
+            new AstGremlinOptimizer(new RuleGremlinOptimizer(), 250, 10);
+
+    @Test
+    public void testParseCost() {
+        String code = "g.V().hasLabel('person').has('age', gt(20))" +
+                      ".repeat(out('knows')).emit().path().by('name')";
+        this.optimizer.limitOptimize(code, 10);
+        int times = 1000;
+        long start = System.nanoTime();
+        for (int i = 0; i < times; i++) {
+            this.optimizer.limitOptimize(code, 10);
+        }
+        long cost = System.nanoTime() - start;
+        System.out.printf("Parse and limit gremlin: %.1fus per script%n",
+                          cost / 1000.0 / times);
+    }
+}
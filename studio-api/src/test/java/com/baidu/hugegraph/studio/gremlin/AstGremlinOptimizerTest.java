@@ -0,0 +1,143 @@
+package com.baidu.hugegraph.studio.gremlin;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class AstGremlinOptimizerTest {
+
+    private final GremlinOptimizer optimizer =
+            new AstGremlinOptimizer(new RuleGremlinOptimizer(), 250, 10);
+
+    @Test
+    public void testLimitAnyStep() {
+        Assert.assertEquals("g.V().limit(100)",
+                            this.optimizer.limitOptimize("g.V()", 100));
+        Assert.assertEquals("g.V('a').out().limit(100)",
+                            this.optimizer.limitOptimize("g.V('a').out()",
+                                                         100));
+        Assert.assertEquals("g.V().both('knows').limit(100) // both",
+                            this.optimizer.limitOptimize(
+                            "g.V().both('knows') // both", 100));
+        Assert.assertEquals("g.E().values('weight', ')').limit(100);\n",
+                            this.optimizer.limitOptimize(
+                            "g.E().values('weight', ')');\n", 100));
+        Assert.assertEquals("g.V(\n  '1:a'\n)\n .out ( 'x' ).limit(100)",
+                            this.optimizer.limitOptimize(
+                            "g.V(\n  '1:a'\n)\n .out ( 'x' )", 100));
+        Assert.assertEquals("g.V().map{it.get()}.limit(100)",
+                            this.optimizer.limitOptimize(
+                            "g.V().map{it.get()}", 100));
+        Assert.assertEquals("g.V().limit(250)",
+                            this.optimizer.limitOptimize("g.V()"));
+    }
+
+    @Test
+    public void testKeepBoundedTraversals() {
+        String[] codes = {
+                "g.V().count()",
+                "g.V().out().fold()",
+                "g.V().groupCount().by(label)",
+                "g.V().next()",
+                "g.V().iterate()",
+                "g.addV('person').property('name', 'a')",
+                "g.V().drop()",
+                "graph.schema().getVertexLabels()",
+                "1 + 1",
+                "def f() { g.V() }"
+        };
+        for (String code : codes) {
+            Assert.assertEquals(code, this.optimizer.limitOptimize(code, 10));
+            Assert.assertNull(this.optimizer.rangeOptimize(code, 0, 10));
+        }
+        Assert.assertEquals("g.V().fold().unfold().limit(10)",
+                            this.optimizer.limitOptimize(
+                            "g.V().fold().unfold()", 10));
+    }
+
+    @Test
+    public void testLimitLastStatement() {
+        Assert.assertEquals("a = 1\ng.V().out().limit(10)",
+                            this.optimizer.limitOptimize(
+                            "a = 1\ng.V().out()", 10));
+        Assert.assertEquals("t = g.V().hasLabel('person')\n" +
+                            "t.out('knows').limit(10)",
+                            this.optimizer.limitOptimize(
+                            "t = g.V().hasLabel('person')\n" +
+                            "t.out('knows')", 10));
+        Assert.assertEquals("def t = g.V(); t.limit(10)",
+                            this.optimizer.limitOptimize(
+                            "def t = g.V(); t", 10));
+        Assert.assertEquals("t = g.V(); t = 1; t",
+                            this.optimizer.limitOptimize(
+                            "t = g.V(); t = 1; t", 10));
+        Assert.assertEquals("g.V().out().limit(10).toList()",
+                            this.optimizer.limitOptimize(
+                            "g.V().out().toList()", 10));
+        Assert.assertEquals("return g.withSack(1).V().limit(10)",
+                            this.optimizer.limitOptimize(
+                            "return g.withSack(1).V()", 10));
+    }
+
+    @Test
+    public void testExistingLimit() {
+        Assert.assertEquals("g.V().limit(5)",
+                            this.optimizer.limitOptimize("g.V().limit(5)",
+                                                         10));
+        Assert.assertEquals("g.V().limit(10)",
+                            this.optimizer.limitOptimize("g.V().limit(1000)",
+                                                         10));
+        Assert.assertEquals("g.V().limit(10)",
+                            this.optimizer.limitOptimize("g.V().limit( -1)",
+                                                         10));
+        Assert.assertEquals("g.V().range(5, 8)",
+                            this.optimizer.limitOptimize("g.V().range(5, 8)",
+                                                         10));
+        Assert.assertEquals("g.V().range(5, 15)",
+                            this.optimizer.limitOptimize(
+                            "g.V().range(5, 100)", 10));
+        Assert.assertEquals("g.V().limit(n).limit(10)",
+                            this.optimizer.limitOptimize("g.V().limit(n)",
+                                                         10));
+    }
+
+    @Test
+    public void testCapRepeat() {
+        Assert.assertEquals("g.V('a').repeat(out()).times(10).path()" +
+                            ".limit(100)",
+                            this.optimizer.limitOptimize(
+                            "g.V('a').repeat(out()).path()", 100));
+        Assert.assertEquals("g.V('a').repeat(out()).times(10).emit()" +
+                            ".limit(100)",
+                            this.optimizer.limitOptimize(
+                            "g.V('a').repeat(out()).emit()", 100));
+        Assert.assertEquals("g.V('a').repeat(out()).times(3).limit(100)",
+                            this.optimizer.limitOptimize(
+                            "g.V('a').repeat(out()).times(3)", 100));
+        Assert.assertEquals("g.V('a').until(has('age')).repeat(out())" +
+                            ".limit(100)",
+                            this.optimizer.limitOptimize(
+                            "g.V('a').until(has('age')).repeat(out())",
+                            100));
+    }
+
+    @Test
+    public void testRangeOptimize() {
+        Assert.assertEquals("g.V().out().range(10, 20)",
+                            this.optimizer.rangeOptimize("g.V().out()",
+                                                         10, 20));
+        Assert.assertEquals("g.V().range(10, 20).toList()",
+                            this.optimizer.rangeOptimize("g.V().toList()",
+                                                         10, 20));
+    }
+
+    @Test
+    public void testFallbackToRules() {
+        // The command chain without parentheses isn't located
+        String code = "g.V().has 'name', 'a'";
+        Assert.assertEquals(new RuleGremlinOptimizer().limitOptimize(code, 10),
+                            this.optimizer.limitOptimize(code, 10));
+        code = "g.V(";
+        Assert.assertEquals(new RuleGremlinOptimizer().limitOptimize(code, 10),
+                            this.optimizer.limitOptimize(code, 10));
+    }
+}
@@ -0,0 +1,105 @@
+package com.baidu.hugegraph.studio.gremlin;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.google.common.util.concurrent.Uninterruptibles;
+
+public class GremlinBatchExecutorTest {
+
+    private final GremlinBatchExecutor executor = new GremlinBatchExecutor();
+
+    @Test
+    public void testMergeInOrder() {
+        List<Callable<Integer>> tasks = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            final int index = i;
+            tasks.add(() -> {
+                // The former tasks finish later
+                Thread.sleep(20 - index);
+                return index;
+            });
+        }
+        List<Integer> results = new ArrayList<>();
+        executor.execute("testMergeInOrder", tasks, results::add);
+
+        Assert.assertEquals(20, results.size());
+        for (int i = 0; i < 20; i++) {
+            Assert.assertEquals(i, results.get(i).intValue());
+        }
+    }
+
+    @Test
+    public void testStopMerging() {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        List<Callable<Integer>> tasks = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            final int index = i;
+            tasks.add(() -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(),
+                                            Math::max);
+                try {
+                    Thread.sleep(5);
+                } finally {
+                    running.decrementAndGet();
+                }
+                return index;
+            });
+        }
+        List<Integer> results = new ArrayList<>();
+        executor.execute("testStopMerging", tasks, index -> {
+            results.add(index);
+            return results.size() < 3;
+        });
+
+        Assert.assertEquals(3, results.size());
+        Assert.assertEquals(2, results.get(2).intValue());
+        Assert.assertTrue(maxRunning.get() <= 4);
+    }
+
+    @Test
+    public void testHoldPermitsOfCancelledTasks() throws Exception {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        CountDownLatch returned = new CountDownLatch(1);
+        Callable<Integer> blocking = () -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(),
+                                        Math::max);
+            try {
+                // The gremlin request can't be aborted by the interruption
+                Uninterruptibles.awaitUninterruptibly(returned);
+            } finally {
+                running.decrementAndGet();
+            }
+            return 1;
+        };
+        List<Callable<Integer>> tasks = new ArrayList<>();
+        tasks.add(() -> 0);
+        for (int i = 0; i < 7; i++) {
+            tasks.add(blocking);
+        }
+        String connectionId = "testHoldPermitsOfCancelledTasks";
+        // Stop merging after the first result, the others are cancelled
+        executor.execute(connectionId, tasks, index -> false);
+
+        Thread thread = new Thread(() -> {
+            executor.execute(connectionId, tasks.subList(1, tasks.size()),
+                             index -> true);
+        });
+        thread.start();
+        Thread.sleep(200);
+        Assert.assertTrue(maxRunning.get() <= 4);
+
+        returned.countDown();
+        thread.join(10000);
+        Assert.assertFalse(thread.isAlive());
+        Assert.assertTrue(maxRunning.get() <= 4);
+    }
+}
@@ -0,0 +1,129 @@
+package com.baidu.hugegraph.studio.gremlin;
+
+import java.util.Arrays;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.baidu.hugegraph.studio.connections.model.Connection;
+import com.baidu.hugegraph.studio.notebook.model.Result;
+
+public class GremlinResultCacheTest {
+
+    @Test
+    public void testNormalize() {
+        Assert.assertEquals("g.V().has('name','a  b').limit(10)",
+                            GremlinResultCache.normalize(
+                            "  g.V()\n  .has('name',   'a  b')\t.limit(10) "));
+        Assert.assertEquals("g.V(\"a \\\"  b\").count()",
+                            GremlinResultCache.normalize(
+                            "g.V(\"a \\\"  b\")  .count()"));
+    }
+
+    @Test
+    public void testCacheable() {
+        GremlinResultCache cache = new GremlinResultCache(10, 60);
+        Assert.assertTrue(cache.cacheable("g.V().out('knows').limit(10)"));
+        Assert.assertFalse(cache.cacheable("g.addV('person')"));
+        Assert.assertFalse(cache.cacheable("g.V().drop()"));
+        Assert.assertFalse(cache.cacheable("graph.schema().getVertexLabels()"));
+
+        GremlinResultCache disabled = new GremlinResultCache(0, 60);
+        Assert.assertFalse(disabled.cacheable("g.V().limit(10)"));
+    }
+
+    @Test
+    public void testReadOnly() {
+        // The words in string literals aren't steps
+        Assert.assertTrue(GremlinResultCache.readOnly(
+                          "g.V().has('type', 'graph')"));
+        Assert.assertTrue(GremlinResultCache.readOnly(
+                          "g.V().has('name', 'io').limit(10)"));
+        Assert.assertTrue(GremlinResultCache.readOnly(
+                          "g.V().has(\"name\", \"drop\").values('name')"));
+        Assert.assertTrue(GremlinResultCache.readOnly(
+                          "t = g.V().out('schema'); t.count()"));
+
+        Assert.assertFalse(GremlinResultCache.readOnly(
+                           "g.addV('person').property('name', 'a')"));
+        Assert.assertFalse(GremlinResultCache.readOnly("g.V().drop()"));
+        Assert.assertFalse(GremlinResultCache.readOnly(
+                           "graph.schema().getVertexLabels()"));
+        Assert.assertFalse(GremlinResultCache.readOnly(
+                           "def v = hugegraph; v.vertices()"));
+        Assert.assertFalse(GremlinResultCache.readOnly(
+                           "g.V().map { it.get().remove() }"));
+        Assert.assertFalse(GremlinResultCache.readOnly(
+                           "def f() { g.V().drop() }; f()"));
+        Assert.assertFalse(GremlinResultCache.readOnly(
+                           "class A { def f() { g.E().drop() } }; 1"));
+        Assert.assertFalse(GremlinResultCache.readOnly(
+                           "g.V().\"${'dr' + 'op'}\"()"));
+        Assert.assertFalse(GremlinResultCache.readOnly("g.V().tx.commit()"));
+
+        // The code which can't be parsed is matched out of the literals
+        Assert.assertTrue(GremlinResultCache.readOnly(
+                          "g.V().has('type', 'graph'"));
+        Assert.assertFalse(GremlinResultCache.readOnly("g.V().drop("));
+    }
+
+    @Test
+    public void testLoadAndInvalidate() {
+        GremlinResultCache cache = new GremlinResultCache(10, 60);
+        Connection connection = new Connection();
+        connection.setId("c1");
+        connection.setGraph("hugegraph");
+
+        Result result = new Result();
+        result.setType(Result.Type.SINGLE);
+        result.setData(Arrays.asList(1));
+        cache.put(connection, "g.V().count()", result);
+        result.setData(Arrays.asList(2));
+
+        Result loaded = new Result();
+        Assert.assertTrue(cache.load(connection, "g.V() .count()", loaded));
+        Assert.assertTrue(loaded.isCached());
+        Assert.assertEquals(Result.Type.SINGLE, loaded.getType());
+        Assert.assertEquals(Arrays.asList(1), loaded.getData());
+
+        Connection other = new Connection();
+        other.setId("c1");
+        other.setGraph("other");
+        Assert.assertFalse(cache.load(other, "g.V().count()", new Result()));
+
+        cache.invalidate(connection);
+        Assert.assertFalse(cache.load(connection, "g.V().count()",
+                                      new Result()));
+    }
+
+    @Test
+    public void testInvalidateConnection() {
+        GremlinResultCache cache = new GremlinResultCache(10, 60);
+        Connection c1 = connection("c1", "hugegraph");
+        Connection c1Other = connection("c1", "other");
+        Connection c2 = connection("c2", "hugegraph");
+
+        Result result = new Result();
+        result.setType(Result.Type.SINGLE);
+        result.setData(Arrays.asList(1));
+        cache.put(c1, "g.V().count()", result);
+        cache.put(c1, "g.E().count()", result);
+        cache.put(c1Other, "g.V().count()", result);
+        cache.put(c2, "g.V().count()", result);
+
+        // The edited or deleted connection might point to another server
+        cache.invalidate("c1");
+        Assert.assertFalse(cache.load(c1, "g.V().count()", new Result()));
+        Assert.assertFalse(cache.load(c1, "g.E().count()", new Result()));
+        Assert.assertFalse(cache.load(c1Other, "g.V().count()",
+                                      new Result()));
+        Assert.assertTrue(cache.load(c2, "g.V().count()", new Result()));
+    }
+
+    private static Connection connection(String id, String graph) {
+        Connection connection = new Connection();
+        connection.setId(id);
+        connection.setGraph(graph);
+        return connection;
+    }
+}
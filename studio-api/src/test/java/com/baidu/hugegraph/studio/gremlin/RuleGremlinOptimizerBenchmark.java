@@ -0,0 +1,42 @@
+package com.baidu.hugegraph.studio.gremlin;
+
+import java.util.List;
+import java.util.regex.Pattern;
+
+import org.junit.Test;
+
+/**
+ * Run by: mvn test -Pbenchmark
+ */
+public class RuleGremlinOptimizerBenchmark {
+
+    @Test
+    public void testMatchLongScripts() {
+        List<String> suffixes = RuleGremlinOptimizerTest.longScriptSuffixes();
+        GremlinOptimizer gremlinOptimizer = new RuleGremlinOptimizer(suffixes);
+        List<Pattern> patterns = RuleGremlinOptimizerTest.regexPatterns(
+                                 suffixes);
+        for (int size : new int[]{1024, 8 * 1024, 64 * 1024}) {
+            String[] codes = RuleGremlinOptimizerTest.longScripts(size);
+            int rounds = 20;
+            long start = System.nanoTime();
+            for (int i = 0; i < rounds; i++) {
+                for (String code : codes) {
+                    patterns.stream().anyMatch(p -> p.matcher(code).find());
+                }
+            }
+            long middle = System.nanoTime();
+            for (int i = 0; i < rounds; i++) {
+                for (String code : codes) {
+                    gremlinOptimizer.limitOptimize(code, 10);
+                }
+            }
+            long end = System.nanoTime();
+            System.out.printf("Match %s rules with %s KB scripts: %.1fus " +
+                              "by regex, %.1fus by suffix rules%n",
+                              suffixes.size(), size / 1024,
+                              (middle - start) / 1e3 / rounds / 2,
+                              (end - middle) / 1e3 / rounds / 2);
+        }
+    }
+}
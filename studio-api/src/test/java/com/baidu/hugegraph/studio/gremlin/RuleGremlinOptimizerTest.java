@@ -1,5 +1,11 @@
 package com.baidu.hugegraph.studio.gremlin;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import org.apache.commons.lang3.StringUtils;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -96,4 +102,90 @@ public class RuleGremlinOptimizerTest {
         System.out.println(gNew);
         Assert.assertEquals("g.V().bothE() \\n", gNew);
     }
+
+    @Test
+    public void testRangeOptimize() {
+        GremlinOptimizer gremlinOptimizer = new RuleGremlinOptimizer();
+        Assert.assertEquals("g.V().hasLabel('person').range(250, 501)",
+                            gremlinOptimizer.rangeOptimize(
+                            "g.V().hasLabel('person')", 250, 501));
+        Assert.assertNull(gremlinOptimizer.rangeOptimize("g.V().count()",
+                                                         0, 10));
+    }
+
+    @Test
+    public void testMatchLikeRegex() {
+        List<String> suffixes = Arrays.asList(".V()", ".E()", ".path()",
+                                              ".hasLabel(STR)",
+                                              ".hasLabel(NUM)");
+        GremlinOptimizer gremlinOptimizer = new RuleGremlinOptimizer(suffixes);
+        List<Pattern> patterns = regexPatterns(suffixes);
+        String[] codes = {
+            "", "g.V()", "g.V()\n", "g.V()\r\n", "g.V()\n\n", "g.V() ",
+            "g.E().path()", "g.V().hasLabel('a')", "g.V().hasLabel('')",
+            "g.V().hasLabel(')", "g.V().hasLabel(\"a\")",
+            "g.V().hasLabel('a\")", "g.V().hasLabel('a').out().has('b')",
+            "g.V().hasLabel(12)", "g.V().hasLabel()", "g.V().hasLabel(1a)",
+            "hasLabel(12)", "g.V().hasLabel('x').hasLabel(12)\r",
+            "V()", ".V(", "g.V().hasLabel('a')\u2028"
+        };
+        for (String code : codes) {
+            boolean expected = patterns.stream()
+                                       .anyMatch(p -> p.matcher(code).find());
+            String optimized = gremlinOptimizer.limitOptimize(code, 10);
+            Assert.assertEquals(code, expected, !optimized.equals(code));
+        }
+    }
+
+    @Test
+    public void testMatchLongScripts() {
+        GremlinOptimizer gremlinOptimizer = new RuleGremlinOptimizer(
+                                            longScriptSuffixes());
+        for (int size : new int[]{1024, 8 * 1024, 64 * 1024}) {
+            String[] codes = longScripts(size);
+            Assert.assertNotEquals(codes[0], gremlinOptimizer.limitOptimize(
+                                             codes[0], 10));
+            Assert.assertEquals(codes[1], gremlinOptimizer.limitOptimize(
+                                          codes[1], 10));
+        }
+    }
+
+    static List<String> longScriptSuffixes() {
+        StudioConfiguration conf = StudioConfiguration.getInstance();
+        return conf.getAppendLimitSuffixes().isEmpty() ?
+               Arrays.asList(".V()", ".hasLabel(STR)") :
+               new ArrayList<>(conf.getAppendLimitSuffixes());
+    }
+
+    static String[] longScripts(int size) {
+        // Long scripts with many string literals
+        String script = StringUtils.repeat("g.V().has('name', 'x');",
+                                           size / 23);
+        return new String[]{script + "g.V().hasLabel('person')",
+                            script + "g.V().out('knows')"};
+    }
+
+    /**
+     * The regex patterns of suffix rules used before.
+     */
+    static List<Pattern> regexPatterns(List<String> suffixes) {
+        List<Pattern> patterns = new ArrayList<>();
+        for (String suffix : suffixes) {
+            String regex = suffix.replaceAll("\\.", "\\\\.")
+                                 .replaceAll("\\(", "\\\\(")
+                                 .replaceAll("\\)", "\\\\)");
+            if (regex.contains("STR")) {
+                patterns.add(Pattern.compile(String.format("(%s)$",
+                             regex.replaceAll("STR", "'[\\\\s\\\\S]+'"))));
+                patterns.add(Pattern.compile(String.format("(%s)$",
+                             regex.replaceAll("STR", "\"[\\\\s\\\\S]+\""))));
+            } else if (regex.contains("NUM")) {
+                patterns.add(Pattern.compile(String.format("(%s)$",
+                             regex.replaceAll("NUM", "[\\\\d]+"))));
+            } else {
+                patterns.add(Pattern.compile(String.format("(%s)$", regex)));
+            }
+        }
+        return patterns;
+    }
 }
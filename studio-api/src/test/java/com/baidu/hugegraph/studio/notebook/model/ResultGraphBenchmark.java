@@ -0,0 +1,75 @@
+package com.baidu.hugegraph.studio.notebook.model;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.baidu.hugegraph.structure.graph.Edge;
+import com.baidu.hugegraph.structure.graph.Vertex;
+
+/**
+ * Run by: mvn test -Pbenchmark
+ */
+public class ResultGraphBenchmark {
+
+    private static final int VERTICES = 10000;
+    private static final int EDGES = 50000;
+    private static final int ROUNDS = 200;
+
+    @Test
+    public void testExpansionCost() {
+        List<Vertex> vertices = ResultGraphTest.vertices(0, VERTICES);
+        List<Edge> edges = ResultGraphTest.edges(VERTICES, EDGES);
+        Result result = new Result();
+        result.setGraphVertices(vertices);
+        result.setGraphEdges(edges);
+        Result.Graph graph = result.getGraph();
+
+        // Warm up, then expand different vertices as the UI does
+        this.scan(vertices, edges, ROUNDS);
+        this.lookup(graph, ROUNDS);
+        long start = System.nanoTime();
+        int scanned = this.scan(vertices, edges, ROUNDS);
+        long middle = System.nanoTime();
+        int found = this.lookup(graph, ROUNDS);
+        long end = System.nanoTime();
+        Assert.assertEquals(scanned, found);
+
+        System.out.printf("Expand a vertex of %s vertices and %s edges: " +
+                          "%.1fus by scanning, %.1fus by index%n",
+                          VERTICES, EDGES,
+                          (middle - start) / 1e3 / ROUNDS,
+                          (end - middle) / 1e3 / ROUNDS);
+    }
+
+    private int scan(List<Vertex> vertices, List<Edge> edges, int rounds) {
+        int found = 0;
+        for (int i = 0; i < rounds; i++) {
+            Object id = "v" + (i * 37 % VERTICES);
+            Set<Object> vertexIds = new HashSet<>();
+            Set<String> visitedEdgeIds = new HashSet<>();
+            vertices.forEach(v -> vertexIds.add(v.id()));
+            edges.forEach(e -> {
+                if (e.source().equals(id) || e.target().equals(id)) {
+                    visitedEdgeIds.add(e.id());
+                }
+            });
+            Assert.assertTrue(vertexIds.contains(id));
+            found += visitedEdgeIds.size();
+        }
+        return found;
+    }
+
+    private int lookup(Result.Graph graph, int rounds) {
+        int found = 0;
+        for (int i = 0; i < rounds; i++) {
+            Object id = "v" + (i * 37 % VERTICES);
+            Assert.assertTrue(graph.containsVertex(id));
+            found += graph.incidentEdges(id).size();
+        }
+        return found;
+    }
+}
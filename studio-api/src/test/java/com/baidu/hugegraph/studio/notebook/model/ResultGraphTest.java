@@ -0,0 +1,73 @@
+package com.baidu.hugegraph.studio.notebook.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.baidu.hugegraph.structure.graph.Edge;
+import com.baidu.hugegraph.structure.graph.Vertex;
+import com.baidu.hugegraph.studio.common.serializer.ObjectMapperProvider;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class ResultGraphTest {
+
+    @Test
+    public void testIndexedGraph() throws Exception {
+        Result result = new Result();
+        Result.Graph graph = result.getGraph();
+        Assert.assertNull(graph.getVertices());
+
+        graph.setVertices(vertices(0, 3));
+        Assert.assertFalse(graph.addVertex(vertex(1)));
+        Assert.assertTrue(graph.addVertex(vertex(3)));
+        Assert.assertTrue(graph.containsVertex("v3"));
+        Assert.assertEquals("v0", graph.getVertices().get(0).id());
+
+        graph.setEdges(edges(4, 4));
+        Assert.assertFalse(graph.addEdge(edge(0, 0, 1)));
+        Assert.assertEquals(4, graph.edgeSize());
+        Assert.assertEquals(2, graph.incidentEdges("v1").size());
+        Assert.assertTrue(graph.incidentEdges("v9").isEmpty());
+
+        // The json keeps the shape of lists
+        ObjectMapper mapper = ObjectMapperProvider.mapper();
+        String json = mapper.writeValueAsString(result);
+        Result read = mapper.readValue(json, Result.class);
+        Assert.assertEquals(4, read.getGraph().getVertices().size());
+        Assert.assertEquals(4, read.getGraph().getEdges().size());
+        Assert.assertEquals(2, read.getGraph().incidentEdges("v1").size());
+        Assert.assertEquals(json, mapper.writeValueAsString(read));
+    }
+
+    static List<Vertex> vertices(int from, int to) {
+        List<Vertex> vertices = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            vertices.add(vertex(i));
+        }
+        return vertices;
+    }
+
+    private static Vertex vertex(int i) {
+        Vertex vertex = new Vertex("person");
+        vertex.id("v" + i);
+        return vertex;
+    }
+
+    static List<Edge> edges(int vertices, int count) {
+        List<Edge> edges = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            edges.add(edge(i, i % vertices, (i * 7 + 1) % vertices));
+        }
+        return edges;
+    }
+
+    private static Edge edge(int i, int source, int target) {
+        Edge edge = new Edge("knows");
+        edge.id("e" + i);
+        edge.source("v" + source);
+        edge.target("v" + target);
+        return edge;
+    }
+}
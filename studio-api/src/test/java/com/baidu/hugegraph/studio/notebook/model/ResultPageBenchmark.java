@@ -0,0 +1,55 @@
+package com.baidu.hugegraph.studio.notebook.model;
+
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Run by: mvn test -Pbenchmark
+ */
+public class ResultPageBenchmark {
+
+    private static final String CODE = ResultPageTest.CODE;
+    private static final int ROWS = ResultPageTest.ROWS;
+    private static final int PAGE_SIZE = ResultPageTest.PAGE_SIZE;
+
+    @Test
+    public void testScrollMemory() {
+        // Scroll to the end as the UI does, the range of each page is sent
+        long heap = usedMemory();
+        long maxPageMemory = 0L;
+        String cursor = null;
+        int pages = 0;
+        do {
+            long offset = ResultPage.offset(cursor, CODE);
+            ResultPage page = ResultPage.of(ResultPageTest.range(
+                                            offset, offset + PAGE_SIZE + 1),
+                                            offset, PAGE_SIZE, CODE);
+            if (pages % 40 == 0) {
+                // Sample some pages, it takes a while to collect garbage
+                maxPageMemory = Math.max(maxPageMemory,
+                                         usedMemory() - heap);
+            }
+            cursor = page.getCursor();
+            pages++;
+        } while (cursor != null);
+
+        // The single page of all rows held by the result before
+        heap = usedMemory();
+        List<Object> all = ResultPageTest.range(0L, ROWS);
+        long allMemory = usedMemory() - heap;
+        Assert.assertEquals(ROWS, all.size());
+
+        System.out.printf("Scroll %s rows: %s pages of %s rows, max %s KB " +
+                          "retained per page, %s KB for all rows at once%n",
+                          ROWS, pages, PAGE_SIZE, maxPageMemory / 1024,
+                          allMemory / 1024);
+    }
+
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
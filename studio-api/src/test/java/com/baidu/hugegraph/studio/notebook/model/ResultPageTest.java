@@ -0,0 +1,74 @@
+package com.baidu.hugegraph.studio.notebook.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.baidu.hugegraph.studio.common.errors.StudioError;
+import com.google.common.collect.ImmutableMap;
+
+public class ResultPageTest {
+
+    static final String CODE = "g.V().hasLabel('person')";
+    static final int ROWS = 100000;
+    static final int PAGE_SIZE = 250;
+
+    @Test
+    public void testCursor() {
+        Assert.assertEquals(0L, ResultPage.offset(null, CODE));
+        String cursor = ResultPage.cursor(500L, CODE);
+        Assert.assertEquals(500L, ResultPage.offset(cursor, CODE));
+
+        try {
+            ResultPage.offset(cursor, CODE + ".out()");
+            Assert.fail("Expect StudioError");
+        } catch (StudioError e) {
+            Assert.assertEquals(400, e.status());
+        }
+        try {
+            ResultPage.offset("not-a-cursor", CODE);
+            Assert.fail("Expect StudioError");
+        } catch (StudioError e) {
+            Assert.assertEquals(400, e.status());
+        }
+    }
+
+    @Test
+    public void testScroll() {
+        // Scroll to the end as the UI does, the range of each page is sent
+        String cursor = null;
+        int pages = 0;
+        long rows = 0L;
+        do {
+            long offset = ResultPage.offset(cursor, CODE);
+            ResultPage page = ResultPage.of(range(offset,
+                                                  offset + PAGE_SIZE + 1),
+                                            offset, PAGE_SIZE, CODE);
+            Assert.assertEquals(offset, page.getOffset());
+            Assert.assertEquals(offset, id(page.getData().get(0)));
+            rows += page.getData().size();
+            cursor = page.getCursor();
+            pages++;
+        } while (cursor != null);
+        Assert.assertEquals(ROWS, rows);
+        Assert.assertEquals(ROWS / PAGE_SIZE, pages);
+    }
+
+    static List<Object> range(long low, long high) {
+        List<Object> rows = new ArrayList<>();
+        for (long i = low; i < Math.min(high, ROWS); i++) {
+            rows.add(ImmutableMap.of("id", i, "label", "person",
+                                     "properties", ImmutableMap.of(
+                                                   "name", "person-" + i,
+                                                   "age", i % 100)));
+        }
+        return rows;
+    }
+
+    private static long id(Object row) {
+        return (Long) ((Map<?, ?>) row).get("id");
+    }
+}
@@ -0,0 +1,47 @@
+package com.baidu.hugegraph.studio.notebook.repository;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.baidu.hugegraph.studio.notebook.repository.AtomicFileWriter.Durability;
+
+/**
+ * Run by: mvn test -Pbenchmark
+ */
+public class AtomicFileWriterBenchmark {
+
+    private Path dir;
+
+    @Before
+    public void setup() throws IOException {
+        this.dir = Files.createTempDirectory("atomic-file-writer");
+    }
+
+    @After
+    public void teardown() {
+        FileUtils.deleteQuietly(this.dir.toFile());
+    }
+
+    @Test
+    public void testWriteLatency() throws Exception {
+        for (Durability durability : Durability.values()) {
+            for (int delay : new int[]{0, 2}) {
+                AtomicFileWriter writer = new AtomicFileWriter(durability,
+                                                               delay);
+                long start = System.nanoTime();
+                AtomicFileWriterTest.writeConcurrently(writer, this.dir, 8);
+                long cost = System.nanoTime() - start;
+                System.out.printf("Durability %s, group commit delay %sms: " +
+                                  "%.1fus per write%n", durability,
+                                  writer.groupCommitDelay(),
+                                  cost / 1000.0 / AtomicFileWriterTest.WRITES);
+            }
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.baidu.hugegraph.studio.notebook.repository;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.baidu.hugegraph.studio.notebook.repository.AtomicFileWriter.Durability;
+
+public class AtomicFileWriterTest {
+
+    static final int WRITES = 200;
+
+    private Path dir;
+
+    @Before
+    public void setup() throws IOException {
+        this.dir = Files.createTempDirectory("atomic-file-writer");
+    }
+
+    @After
+    public void teardown() {
+        FileUtils.deleteQuietly(this.dir.toFile());
+    }
+
+    @Test
+    public void testReplaceFile() throws IOException {
+        AtomicFileWriter writer = new AtomicFileWriter(Durability.FSYNC_DIR, 0);
+        Path file = this.dir.resolve("notebook");
+        writer.write(file, os -> os.write(bytes("first")));
+        writer.write(file, os -> os.write(bytes("second")));
+
+        Assert.assertEquals("second", read(file));
+        Assert.assertEquals(1, Files.list(this.dir).count());
+    }
+
+    @Test
+    public void testFailedWriteKeepsFile() throws IOException {
+        AtomicFileWriter writer = new AtomicFileWriter(Durability.NONE, 0);
+        Path file = this.dir.resolve("notebook");
+        writer.write(file, os -> os.write(bytes("first")));
+        try {
+            writer.write(file, os -> {
+                os.write(bytes("sec"));
+                throw new IOException("Crashed");
+            });
+            Assert.fail("Expect IOException");
+        } catch (IOException e) {
+            Assert.assertEquals("Crashed", e.getMessage());
+        }
+
+        Assert.assertEquals("first", read(file));
+        Assert.assertEquals(1, Files.list(this.dir).count());
+    }
+
+    @Test
+    public void testGroupCommit() throws Exception {
+        AtomicFileWriter writer = new AtomicFileWriter(Durability.FSYNC_DIR, 5);
+        writeConcurrently(writer, this.dir, 8);
+
+        for (int i = 0; i < 8; i++) {
+            Path file = this.dir.resolve("notebook" + i);
+            Assert.assertTrue(read(file).startsWith("notebook" + i));
+        }
+        Assert.assertEquals(8, Files.list(this.dir).count());
+    }
+
+    @Test
+    public void testGroupCommitOnlyWithDirSync() {
+        Assert.assertEquals(5L, new AtomicFileWriter(Durability.FSYNC_DIR, 5)
+                                .groupCommitDelay());
+        Assert.assertEquals(0L, new AtomicFileWriter(Durability.FSYNC_FILE, 5)
+                                .groupCommitDelay());
+        Assert.assertEquals(0L, new AtomicFileWriter(Durability.NONE, 5)
+                                .groupCommitDelay());
+    }
+
+    @Test
+    public void testInterruptWriter() throws Exception {
+        AtomicFileWriter writer = new AtomicFileWriter(Durability.FSYNC_DIR,
+                                                       200);
+        Path file = this.dir.resolve("interrupted");
+        CountDownLatch written = new CountDownLatch(1);
+        AtomicReference<Object> outcome = new AtomicReference<>();
+        Thread thread = new Thread(() -> {
+            try {
+                writer.write(file, os -> {
+                    os.write(bytes("interrupted"));
+                    written.countDown();
+                });
+                outcome.set(Thread.currentThread().isInterrupted());
+            } catch (IOException e) {
+                outcome.set(e);
+            }
+        });
+        thread.start();
+        written.await();
+
+        // Interrupt the writer waiting for the commit
+        Thread.sleep(50);
+        thread.interrupt();
+        writer.write(this.dir.resolve("other"), os -> os.write(bytes("other")));
+        thread.join();
+
+        Assert.assertEquals(true, outcome.get());
+        Assert.assertEquals("interrupted", read(file));
+        Assert.assertEquals("other", read(this.dir.resolve("other")));
+    }
+
+    @Test
+    public void testDeleteTemps() throws IOException {
+        Path sub = Files.createDirectories(this.dir.resolve("cells/n1"));
+        Files.write(this.dir.resolve(".a.1.tmp"), bytes("temp"));
+        Files.write(sub.resolve(".c1.2.tmp"), bytes("temp"));
+        Files.write(sub.resolve("c1"), bytes("cell"));
+
+        AtomicFileWriter.deleteTemps(this.dir);
+        Assert.assertFalse(Files.exists(this.dir.resolve(".a.1.tmp")));
+        Assert.assertFalse(Files.exists(sub.resolve(".c1.2.tmp")));
+        Assert.assertEquals("cell", read(sub.resolve("c1")));
+    }
+
+    static void writeConcurrently(AtomicFileWriter writer, Path dir,
+                                  int threads) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                Path file = dir.resolve("notebook" + i);
+                futures.add(executor.submit(() -> {
+                    for (int j = 0; j < WRITES / threads; j++) {
+                        String content = file.getFileName() + "-" + j;
+                        writer.write(file, os -> os.write(bytes(content)));
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static byte[] bytes(String content) {
+        return content.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String read(Path file) throws IOException {
+        return new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,215 @@
+package com.baidu.hugegraph.studio.notebook.repository;
+
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.baidu.hugegraph.studio.config.StudioConfiguration;
+import com.baidu.hugegraph.studio.notebook.model.Notebook;
+import com.baidu.hugegraph.studio.notebook.model.NotebookCell;
+import com.baidu.hugegraph.studio.notebook.model.Result;
+import com.google.common.collect.ImmutableMap;
+
+public class FileNotebookRepositoryTest {
+
+    private static final int NOTEBOOKS = 8;
+    private static final int CELLS = 50;
+    private static final int LOADERS = 4;
+    private static final int ROUNDS = 20;
+
+    private final FileNotebookRepository repository =
+            new FileNotebookRepository();
+    private final List<String> notebookIds = new ArrayList<>();
+
+    @Before
+    public void setup() {
+        ReflectionTestUtils.setField(this.repository, "resultRepository",
+                                     new FileResultRepository());
+        for (int i = 0; i < NOTEBOOKS; i++) {
+            Notebook notebook = new Notebook();
+            notebook.setName("testConcurrentNotebooks" + i);
+            notebook.setConnectionId("testConcurrentNotebooks");
+            notebook = this.repository.createNotebook(notebook);
+            this.notebookIds.add(notebook.getId());
+        }
+    }
+
+    @After
+    public void teardown() {
+        this.notebookIds.forEach(this.repository::deleteNotebook);
+    }
+
+    @Test
+    public void testConcurrentNotebooks() throws Exception {
+        long serial = this.run(1);
+        long concurrent = this.run(NOTEBOOKS);
+        System.out.printf("Edit %s notebooks: %sms with 1 thread, %sms " +
+                          "with %s threads%n", NOTEBOOKS, serial, concurrent,
+                          NOTEBOOKS);
+
+        for (String notebookId : this.notebookIds) {
+            Notebook notebook = this.repository.getNotebook(notebookId);
+            // The initial cell and the cells of two rounds
+            Assert.assertEquals(1 + 2 * CELLS, notebook.getCells().size());
+            for (NotebookCell cell : notebook.getCells().subList(1, 1 + CELLS)) {
+                Assert.assertEquals("g.V().count()", cell.getCode());
+            }
+        }
+    }
+
+    @Test
+    public void testReadLegacyNotebook() throws IOException {
+        String notebookId = UUID.randomUUID().toString();
+        this.notebookIds.add(notebookId);
+        String path = writeLegacyNotebook(notebookId);
+
+        Notebook notebook = this.repository.getNotebookByPath(
+                            Paths.get(path), false);
+        Assert.assertEquals(ImmutableMap.of("id", notebookId,
+                                            "connectionId", "c",
+                                            "name", "legacy",
+                                            "created", 1L,
+                                            "lastUsed", 1L),
+                            notebook.summary());
+
+        notebook = this.repository.getNotebook(notebookId);
+        Assert.assertEquals(2, notebook.getCells().size());
+        Assert.assertEquals("g.V()", notebook.getCells().get(0).getCode());
+        Result result = notebook.getCells().get(0).getResult();
+        Assert.assertEquals(Result.Type.SINGLE, result.getType());
+        Assert.assertEquals("# title", this.repository
+                                           .getNotebookCell(notebookId, "c2")
+                                           .getCode());
+
+        // Migrated to the current format
+        NotebookCell cell = new NotebookCell();
+        cell.setCode("g.E()");
+        this.repository.editNotebookCell(notebookId, "c2", cell);
+        notebook = this.repository.getNotebook(notebookId);
+        Assert.assertEquals(2, notebook.getCells().size());
+        Assert.assertEquals("g.E()", notebook.getCells().get(1).getCode());
+        Assert.assertEquals(Result.Type.SINGLE,
+                            notebook.getCells().get(0).getResult().getType());
+        try (NotebookFile file = NotebookFile.open(
+                                 Paths.get(path))) {
+            Assert.assertEquals(NotebookFile.VERSION, file.version());
+        }
+    }
+
+    @Test
+    public void testLoadAndEditLegacyNotebook() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(LOADERS + 1);
+        try {
+            for (int i = 0; i < ROUNDS; i++) {
+                String notebookId = UUID.randomUUID().toString();
+                this.notebookIds.add(notebookId);
+                writeLegacyNotebook(notebookId);
+
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<?>> futures = new ArrayList<>();
+                for (int j = 0; j < LOADERS; j++) {
+                    futures.add(executor.submit(() -> {
+                        start.await();
+                        return this.repository.getNotebook(notebookId);
+                    }));
+                }
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    NotebookCell cell = new NotebookCell();
+                    cell.setCode("g.E()");
+                    return this.repository.editNotebookCell(notebookId, "c2",
+                                                            cell);
+                }));
+                start.countDown();
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+
+                // The edit isn't overwritten by the migration of loaders
+                Assert.assertEquals("g.E()", this.repository
+                                                 .getNotebookCell(notebookId,
+                                                                  "c2")
+                                                 .getCode());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static String writeLegacyNotebook(String notebookId)
+                                              throws IOException {
+        // The file written by former versions with inline cells and results
+        String summary = String.format("{\"id\":\"%s\",\"name\":\"legacy\"," +
+                                       "\"connectionId\":\"c\",\"created\":1," +
+                                       "\"lastUsed\":1}", notebookId);
+        String all = String.format("{\"id\":\"%s\",\"name\":\"legacy\"," +
+                                   "\"connectionId\":\"c\",\"created\":1," +
+                                   "\"lastUsed\":1,\"cells\":[" +
+                                   "{\"id\":\"c1\",\"code\":\"g.V()\"," +
+                                   "\"language\":\"gremlin\"," +
+                                   "\"result\":{\"data\":[1],\"type\":" +
+                                   "\"SINGLE\"}}," +
+                                   "{\"id\":\"c2\",\"code\":\"# title\"," +
+                                   "\"language\":\"markdown\"}]}",
+                                   notebookId);
+        String path = StudioConfiguration.getInstance()
+                                         .getNotebooksDirectory() +
+                      "/" + notebookId;
+        try (DataOutputStream out = new DataOutputStream(
+                                    new FileOutputStream(path))) {
+            out.writeUTF(summary);
+            byte[] bytes = all.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+        return path;
+    }
+
+    private long run(int threads) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        long start = System.currentTimeMillis();
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (String notebookId : this.notebookIds) {
+                futures.add(executor.submit(() -> this.editCells(notebookId)));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        return System.currentTimeMillis() - start;
+    }
+
+    private void editCells(String notebookId) {
+        for (int i = 0; i < CELLS; i++) {
+            NotebookCell cell = new NotebookCell();
+            cell.setLanguage("gremlin");
+            cell = this.repository.addCellToNotebook(notebookId, cell, null);
+
+            NotebookCell edited = new NotebookCell();
+            edited.setCode("g.V().count()");
+            this.repository.editNotebookCell(notebookId, cell.getId(), edited);
+            Assert.assertEquals("g.V().count()",
+                                this.repository.getNotebookCell(notebookId,
+                                                                cell.getId())
+                                               .getCode());
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.baidu.hugegraph.studio.notebook.repository;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.baidu.hugegraph.structure.graph.Edge;
+import com.baidu.hugegraph.structure.graph.Vertex;
+import com.baidu.hugegraph.studio.config.StudioConfiguration;
+import com.baidu.hugegraph.studio.notebook.model.Result;
+
+public class FileResultRepositoryTest {
+
+    private final FileResultRepository repository =
+            new FileResultRepository();
+    private final String notebookId = UUID.randomUUID().toString();
+
+    @After
+    public void teardown() {
+        this.repository.deleteResults(this.notebookId);
+    }
+
+    @Test
+    public void testAppendResult() {
+        this.repository.saveResult(this.notebookId, "c", result(0, 100));
+        for (int i = 0; i < 10; i++) {
+            int from = 100 + i * 10;
+            // The first vertex is a duplicate of the former delta
+            this.repository.appendResult(this.notebookId, "c",
+                                         vertices(from - 1, from + 10),
+                                         edges(from, from + 10));
+        }
+        Assert.assertTrue(this.deltaFile("c").exists());
+
+        Result result = this.repository.getResult(this.notebookId, "c");
+        Assert.assertEquals(200, result.getGraph().getVertices().size());
+        Assert.assertEquals(200, result.getGraph().getEdges().size());
+        Assert.assertEquals(Result.Type.VERTEX, result.getType());
+
+        // Executing the cell again drops the deltas
+        this.repository.saveResult(this.notebookId, "c", result(0, 10));
+        Assert.assertFalse(this.deltaFile("c").exists());
+        result = this.repository.getResult(this.notebookId, "c");
+        Assert.assertEquals(10, result.getGraph().getVertices().size());
+    }
+
+    @Test
+    public void testAppendAfterPartialDelta() throws IOException {
+        this.repository.saveResult(this.notebookId, "c", result(0, 10));
+        this.repository.appendResult(this.notebookId, "c", vertices(10, 20),
+                                     edges(10, 20));
+        // A crash leaves a partial record at the end
+        byte[] partial = {1, 0, 0, 1, 0, 0, 0, 0, 0, '{'};
+        Files.write(this.deltaFile("c").toPath(), partial,
+                    StandardOpenOption.APPEND);
+
+        // The restarted repository drops the partial record before append
+        FileResultRepository restarted = new FileResultRepository();
+        restarted.appendResult(this.notebookId, "c", vertices(20, 30),
+                               edges(20, 30));
+        Result result = restarted.getResult(this.notebookId, "c");
+        Assert.assertEquals(30, result.getGraph().getVertices().size());
+        Assert.assertEquals(30, result.getGraph().getEdges().size());
+
+        // A corrupted record is ignored along with the records after it
+        long length = this.deltaFile("c").length();
+        try (RandomAccessFile file = new RandomAccessFile(this.deltaFile("c"),
+                                                          "rw")) {
+            file.seek(length - 2);
+            file.write('x');
+        }
+        result = restarted.getResult(this.notebookId, "c");
+        Assert.assertEquals(20, result.getGraph().getVertices().size());
+    }
+
+    @Test
+    public void testCompactDeltas() {
+        this.repository.saveResult(this.notebookId, "c", result(0, 10));
+        int total = 10;
+        while (total < 10000 && !this.compacted("c", total)) {
+            this.repository.appendResult(this.notebookId, "c",
+                                         vertices(total, total + 50),
+                                         edges(total, total + 50));
+            total += 50;
+        }
+        Assert.assertFalse(this.deltaFile("c").exists());
+        Result result = this.repository.getResult(this.notebookId, "c");
+        Assert.assertEquals(total, result.getGraph().getVertices().size());
+        Assert.assertEquals(total, result.getGraph().getEdges().size());
+    }
+
+    @Test
+    public void testExpansionLatency() {
+        for (int size : new int[]{1000, 10000, 50000}) {
+            String cellId = "c" + size;
+            this.repository.saveResult(this.notebookId, cellId,
+                                       result(0, size));
+            int rounds = 20;
+            long start = System.nanoTime();
+            for (int i = 0; i < rounds; i++) {
+                int from = size + i * 20;
+                this.repository.appendResult(this.notebookId, cellId,
+                                             vertices(from, from + 20),
+                                             edges(from, from + 20));
+            }
+            long appended = System.nanoTime();
+            Result result = this.repository.getResult(this.notebookId,
+                                                      cellId);
+            long read = System.nanoTime();
+            for (int i = 0; i < rounds; i++) {
+                this.repository.saveResult(this.notebookId, cellId, result);
+            }
+            long rewritten = System.nanoTime();
+            System.out.printf("Expand a graph of %s vertices: %.2fms to " +
+                              "append, %.2fms to rewrite, %.2fms to read%n",
+                              size, (appended - start) / 1e6 / rounds,
+                              (rewritten - read) / 1e6 / rounds,
+                              (read - appended) / 1e6);
+        }
+    }
+
+    private boolean compacted(String cellId, int total) {
+        return total > 10 && !this.deltaFile(cellId).exists();
+    }
+
+    private File deltaFile(String cellId) {
+        return FileUtils.getFile(StudioConfiguration.getInstance()
+                                                    .getResultsDirectory(),
+                                 this.notebookId, cellId + ".delta");
+    }
+
+    private static Result result(int from, int to) {
+        Result result = new Result();
+        result.setType(Result.Type.VERTEX);
+        result.setGraphVertices(vertices(from, to));
+        result.setGraphEdges(edges(from, to));
+        return result;
+    }
+
+    private static List<Vertex> vertices(int from, int to) {
+        List<Vertex> vertices = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            Vertex vertex = new Vertex("person");
+            vertex.id("1:person-" + i);
+            vertex.property("name", "person-" + i);
+            vertices.add(vertex);
+        }
+        return vertices;
+    }
+
+    private static List<Edge> edges(int from, int to) {
+        List<Edge> edges = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            Edge edge = new Edge("knows");
+            edge.id("S1:person-" + i + ">knows>>S1:person-" + (i + 1));
+            edge.source("1:person-" + i);
+            edge.target("1:person-" + (i + 1));
+            edges.add(edge);
+        }
+        return edges;
+    }
+}
@@ -0,0 +1,66 @@
+package com.baidu.hugegraph.studio.notebook.repository;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.baidu.hugegraph.studio.notebook.model.Result;
+import com.baidu.hugegraph.studio.notebook.repository.AtomicFileWriter.Durability;
+import com.baidu.hugegraph.studio.notebook.repository.NotebookFile.Codec;
+import com.baidu.hugegraph.studio.notebook.repository.NotebookFile.Compression;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Run by: mvn test -Pbenchmark
+ */
+public class NotebookFileBenchmark {
+
+    private final AtomicFileWriter writer =
+            new AtomicFileWriter(Durability.NONE, 0);
+
+    private Path dir;
+
+    @Before
+    public void setup() throws IOException {
+        this.dir = Files.createTempDirectory("notebook-file");
+    }
+
+    @After
+    public void teardown() {
+        FileUtils.deleteQuietly(this.dir.toFile());
+    }
+
+    @Test
+    public void testResultFootprint() throws IOException {
+        Result result = NotebookFileTest.result(5000);
+        for (Codec codec : Codec.values()) {
+            ObjectMapper codecMapper = codec.newMapper();
+            for (Compression compression : Compression.values()) {
+                Path file = this.dir.resolve(codec + "-" + compression);
+                long start = System.nanoTime();
+                this.writer.write(file, os -> {
+                    NotebookFile.write(os, codec, compression, new byte[0],
+                                       out -> codecMapper.writeValue(out,
+                                                                     result));
+                });
+                long saved = System.nanoTime();
+                try (NotebookFile notebookFile = NotebookFile.open(file, false);
+                     InputStream body = notebookFile.body()) {
+                    codecMapper.readValue(body, Result.class);
+                }
+                long end = System.nanoTime();
+
+                System.out.printf("Codec %s, compression %s: %s bytes, " +
+                                  "save %.1fms, load %.1fms%n", codec,
+                                  compression, Files.size(file),
+                                  (saved - start) / 1e6, (end - saved) / 1e6);
+            }
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.baidu.hugegraph.studio.notebook.repository;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.baidu.hugegraph.studio.notebook.model.Result;
+import com.baidu.hugegraph.studio.notebook.repository.AtomicFileWriter.Durability;
+import com.baidu.hugegraph.studio.notebook.repository.NotebookFile.Codec;
+import com.baidu.hugegraph.studio.notebook.repository.NotebookFile.Compression;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableMap;
+
+public class NotebookFileTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final AtomicFileWriter writer =
+            new AtomicFileWriter(Durability.NONE, 0);
+
+    private Path dir;
+
+    @Before
+    public void setup() throws IOException {
+        this.dir = Files.createTempDirectory("notebook-file");
+    }
+
+    @After
+    public void teardown() {
+        FileUtils.deleteQuietly(this.dir.toFile());
+    }
+
+    @Test
+    public void testReadSections() throws IOException {
+        for (Compression compression : Compression.values()) {
+            Path file = this.dir.resolve(compression.name());
+            byte[] summary = bytes("{\"name\":\"summary\"}");
+            this.writer.write(file, os -> {
+                NotebookFile.write(os, Codec.JSON, compression, summary,
+                                   out -> out.write(bytes("body")));
+            });
+
+            try (NotebookFile notebookFile = NotebookFile.open(file)) {
+                Assert.assertEquals(NotebookFile.VERSION,
+                                    notebookFile.version());
+                Assert.assertEquals(compression, notebookFile.compression());
+                Assert.assertEquals("body", read(notebookFile.body()));
+                Assert.assertEquals("{\"name\":\"summary\"}",
+                                    read(notebookFile.summary()));
+            }
+        }
+    }
+
+    @Test
+    public void testReadPlainBody() throws IOException {
+        Path file = this.dir.resolve("plain");
+        Files.write(file, bytes("{\"data\":[1]}"));
+        try (NotebookFile notebookFile = NotebookFile.open(file, false)) {
+            Assert.assertEquals(0, notebookFile.version());
+            Assert.assertEquals("{\"data\":[1]}", read(notebookFile.body()));
+            Assert.assertEquals("", read(notebookFile.summary()));
+        }
+    }
+
+    @Test
+    public void testReadResult() throws IOException {
+        Result result = result(100);
+        String expected = this.mapper.writeValueAsString(result);
+        for (Codec codec : Codec.values()) {
+            ObjectMapper codecMapper = codec.newMapper();
+            for (Compression compression : Compression.values()) {
+                Path file = this.dir.resolve(codec + "-" + compression);
+                this.writer.write(file, os -> {
+                    NotebookFile.write(os, codec, compression, new byte[0],
+                                       out -> codecMapper.writeValue(out,
+                                                                     result));
+                });
+                try (NotebookFile notebookFile = NotebookFile.open(file, false);
+                     InputStream body = notebookFile.body()) {
+                    Assert.assertEquals(codec, notebookFile.codec());
+                    Result loaded = codecMapper.readValue(body, Result.class);
+                    Assert.assertEquals(expected,
+                                        this.mapper.writeValueAsString(loaded));
+                }
+            }
+        }
+    }
+
+    static Result result(int size) {
+        Result result = new Result();
+        result.setType(Result.Type.VERTEX);
+        List<Object> data = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            data.add(ImmutableMap.of("id", "1:person-" + i,
+                                     "label", "person",
+                                     "type", "vertex",
+                                     "properties", ImmutableMap.of(
+                                                   "name", "person-" + i,
+                                                   "age", i % 100,
+                                                   "city", "Beijing")));
+        }
+        result.setData(data);
+        return result;
+    }
+
+    private static byte[] bytes(String content) {
+        return content.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String read(InputStream input) throws IOException {
+        try (InputStream is = input) {
+            return IOUtils.toString(is, StandardCharsets.UTF_8);
+        }
+    }
+}
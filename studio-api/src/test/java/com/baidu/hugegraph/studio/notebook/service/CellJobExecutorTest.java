@@ -0,0 +1,165 @@
+package com.baidu.hugegraph.studio.notebook.service;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.baidu.hugegraph.studio.common.errors.StudioError;
+import com.baidu.hugegraph.studio.notebook.model.CellJob;
+import com.baidu.hugegraph.studio.notebook.model.Result;
+import com.google.common.util.concurrent.Uninterruptibles;
+
+public class CellJobExecutorTest {
+
+    private final CellJobExecutor executor = new CellJobExecutor(2, 4, 1);
+
+    @Test
+    public void testSubmitAndPoll() throws InterruptedException {
+        Result result = new Result();
+        result.setType(Result.Type.SINGLE);
+        CellJob job = this.executor.submit("n", "c", "testSubmitAndPoll",
+                                           listener -> result);
+        job = this.await(job);
+
+        Assert.assertEquals(CellJob.Status.SUCCESS, job.getStatus());
+        Assert.assertSame(result, this.executor.result(job.getId()));
+        Assert.assertNotNull(job.getFinished());
+    }
+
+    @Test
+    public void testCancelAndLimit() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CellJob job = this.executor.submit("n", "c", "testCancelAndLimit",
+                                           listener -> {
+            started.countDown();
+            // Stage boundaries check the interruption
+            while (true) {
+                Thread.sleep(5);
+                listener.onStyles(null);
+            }
+        });
+        Assert.assertTrue(started.await(10, TimeUnit.SECONDS));
+
+        // Only one unfinished job of a connection is allowed
+        try {
+            this.executor.submit("n", "c", "testCancelAndLimit",
+                                 listener -> new Result());
+            Assert.fail("Expect StudioError");
+        } catch (StudioError e) {
+            Assert.assertEquals(503, e.status());
+        }
+
+        job = this.executor.cancel(job.getId());
+        Assert.assertEquals(CellJob.Status.CANCELLED, job.getStatus());
+        Assert.assertNull(this.executor.result(job.getId()));
+
+        // The permit is released once the cancelled job stops
+        job = this.await(this.submitOnPermit("testCancelAndLimit"));
+        Assert.assertEquals(CellJob.Status.SUCCESS, job.getStatus());
+    }
+
+    @Test
+    public void testHoldPermitUntilCancelledJobReturns()
+                throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch returned = new CountDownLatch(1);
+        String connectionId = "testHoldPermitUntilCancelledJobReturns";
+        CellJob job = this.executor.submit("n", "c", connectionId,
+                                           listener -> {
+            started.countDown();
+            // The gremlin request can't be aborted by the interruption
+            Uninterruptibles.awaitUninterruptibly(returned);
+            return new Result();
+        });
+        Assert.assertTrue(started.await(10, TimeUnit.SECONDS));
+
+        job = this.executor.cancel(job.getId());
+        Assert.assertEquals(CellJob.Status.CANCELLED, job.getStatus());
+        try {
+            this.executor.submit("n", "c", connectionId,
+                                 listener -> new Result());
+            Assert.fail("Expect StudioError");
+        } catch (StudioError e) {
+            Assert.assertEquals(503, e.status());
+        }
+
+        returned.countDown();
+        job = this.await(this.submitOnPermit(connectionId));
+        Assert.assertEquals(CellJob.Status.SUCCESS, job.getStatus());
+    }
+
+    @Test
+    public void testSkipSavingCancelledResult() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch cancelled = new CountDownLatch(1);
+        AtomicBoolean saved = new AtomicBoolean();
+        CellJob job = this.executor.submit("n", "c",
+                                           "testSkipSavingCancelledResult",
+                                           listener -> {
+            started.countDown();
+            Uninterruptibles.awaitUninterruptibly(cancelled);
+            Result result = new Result();
+            listener.onResult(result);
+            saved.set(true);
+            return result;
+        });
+        Assert.assertTrue(started.await(10, TimeUnit.SECONDS));
+
+        job = this.executor.cancel(job.getId());
+        cancelled.countDown();
+        job = this.await(job);
+        Assert.assertEquals(CellJob.Status.CANCELLED, job.getStatus());
+        Assert.assertFalse(saved.get());
+    }
+
+    @Test
+    public void testNotInterruptSaving() throws InterruptedException {
+        CountDownLatch saving = new CountDownLatch(1);
+        CountDownLatch cancelled = new CountDownLatch(1);
+        AtomicBoolean interrupted = new AtomicBoolean();
+        CellJob job = this.executor.submit("n", "c", "testNotInterruptSaving",
+                                           listener -> {
+            Result result = new Result();
+            listener.onResult(result);
+            saving.countDown();
+            // The repository is writing the result
+            Uninterruptibles.awaitUninterruptibly(cancelled);
+            interrupted.set(Thread.currentThread().isInterrupted());
+            return result;
+        });
+        Assert.assertTrue(saving.await(10, TimeUnit.SECONDS));
+
+        job = this.executor.cancel(job.getId());
+        cancelled.countDown();
+        job = this.await(job);
+        Assert.assertEquals(CellJob.Status.SUCCESS, job.getStatus());
+        Assert.assertFalse(interrupted.get());
+        Assert.assertNotNull(this.executor.result(job.getId()));
+    }
+
+    private CellJob submitOnPermit(String connectionId)
+                                   throws InterruptedException {
+        for (int i = 0; ; i++) {
+            try {
+                return this.executor.submit("n", "c", connectionId,
+                                            listener -> new Result());
+            } catch (StudioError e) {
+                if (i >= 1000) {
+                    throw e;
+                }
+                Thread.sleep(10);
+            }
+        }
+    }
+
+    private CellJob await(CellJob job) throws InterruptedException {
+        for (int i = 0; i < 1000 && !job.getStatus().finished(); i++) {
+            Thread.sleep(10);
+            job = this.executor.get(job.getId());
+        }
+        return job;
+    }
+}
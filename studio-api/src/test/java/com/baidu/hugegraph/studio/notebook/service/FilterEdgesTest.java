@@ -0,0 +1,63 @@
+package com.baidu.hugegraph.studio.notebook.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.baidu.hugegraph.structure.graph.Edge;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+public class FilterEdgesTest {
+
+    private static final Set<Object> VERTICES = ImmutableSet.of(
+            "a", "b1", "b2", "b3", "b4", "c", "d");
+
+    @Test
+    public void testSkipEdgesBeyondDegree() {
+        List<Edge> edges = new ArrayList<>();
+        // The vertex 'a' has more edges than the degree
+        edges.add(edge("a", "b1"));
+        edges.add(edge("a", "b2"));
+        edges.add(edge("a", "b3"));
+        // The vertices in the same batch are under the degree
+        edges.add(edge("b3", "c"));
+        edges.add(edge("b3", "d"));
+        edges.add(edge("c", "d"));
+
+        List<Edge> kept = NotebookService.filterEdges(edges.iterator(),
+                                                      VERTICES, 2, 100);
+        List<Object> ids = new ArrayList<>();
+        kept.forEach(edge -> ids.add(edge.id()));
+        // The skipped edge 'a>b3' doesn't take the quota of 'b3'
+        Assert.assertEquals(ImmutableList.of("a>b1", "a>b2", "b3>c", "b3>d",
+                                             "c>d"), ids);
+    }
+
+    @Test
+    public void testSkipEdgesOutOfVertices() {
+        List<Edge> edges = new ArrayList<>();
+        edges.add(edge("a", "x"));
+        edges.add(edge("c", "d"));
+        edges.add(edge("a", "c"));
+
+        List<Edge> kept = NotebookService.filterEdges(edges.iterator(),
+                                                      VERTICES, 3, 100);
+        Assert.assertEquals(2, kept.size());
+        Assert.assertEquals("c>d", kept.get(0).id());
+
+        kept = NotebookService.filterEdges(edges.iterator(), VERTICES, 3, 1);
+        Assert.assertEquals(1, kept.size());
+    }
+
+    private static Edge edge(String source, String target) {
+        Edge edge = new Edge("link");
+        edge.id(source + ">" + target);
+        edge.source(source);
+        edge.target(target);
+        return edge;
+    }
+}
@@ -0,0 +1,56 @@
+package com.baidu.hugegraph.studio.notebook.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang3.StringUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+import groovy.lang.GroovyClassLoader;
+
+/**
+ * Run by: mvn test -Pbenchmark
+ */
+public class GremlinBindingBenchmark {
+
+    private static final int BATCHES = 100;
+    private static final int IDS = 250;
+
+    private final GroovyClassLoader loader = new GroovyClassLoader();
+
+    @Test
+    public void testCompileCost() {
+        // Warm up the compiler
+        this.loader.parseClass("g.V()");
+
+        // The gremlin server compiles each distinct script once and caches it
+        Map<String, Class<?>> splicedCache = new HashMap<>();
+        long start = System.nanoTime();
+        for (int i = 0; i < BATCHES; i++) {
+            List<String> ids = new ArrayList<>(IDS);
+            for (int j = 0; j < IDS; j++) {
+                ids.add(String.format("'1:person-%s'", i * IDS + j));
+            }
+            String code = String.format("g.V(%s)", StringUtils.join(ids, ","));
+            splicedCache.computeIfAbsent(code, this.loader::parseClass);
+        }
+        long spliced = System.nanoTime() - start;
+
+        Map<String, Class<?>> boundCache = new HashMap<>();
+        start = System.nanoTime();
+        for (int i = 0; i < BATCHES; i++) {
+            boundCache.computeIfAbsent(NotebookService.VERTICES_GREMLIN,
+                                       this.loader::parseClass);
+        }
+        long bound = System.nanoTime() - start;
+
+        Assert.assertEquals(BATCHES, splicedCache.size());
+        Assert.assertEquals(1, boundCache.size());
+        System.out.printf("Compile %s batches of %s vertex ids: %.1fms with " +
+                          "ids spliced, %.1fms with ids bound%n", BATCHES,
+                          IDS, spliced / 1e6, bound / 1e6);
+    }
+}
@@ -0,0 +1,21 @@
+package com.baidu.hugegraph.studio.notebook.service;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import groovy.lang.GroovyClassLoader;
+
+public class GremlinBindingTest {
+
+    private final GroovyClassLoader loader = new GroovyClassLoader();
+
+    @Test
+    public void testCompileScripts() {
+        Assert.assertNotNull(this.loader.parseClass(
+                             NotebookService.VERTICES_GREMLIN));
+        Assert.assertNotNull(this.loader.parseClass(
+                             NotebookService.EDGES_GREMLIN));
+        Assert.assertNotNull(this.loader.parseClass(
+                             NotebookService.ADJACENT_EDGES_GREMLIN));
+    }
+}
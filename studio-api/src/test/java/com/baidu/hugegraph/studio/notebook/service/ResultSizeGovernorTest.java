@@ -0,0 +1,39 @@
+package com.baidu.hugegraph.studio.notebook.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.lang3.StringUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableMap;
+
+public class ResultSizeGovernorTest {
+
+    @Test
+    public void testEstimate() {
+        Assert.assertEquals(3L, ResultSizeGovernor.estimate("a"));
+        Assert.assertEquals(13L, ResultSizeGovernor.estimate(
+                                ImmutableMap.of("a", 1, "b", 2)));
+    }
+
+    @Test
+    public void testTruncateLargeRecords() {
+        List<Object> records = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            // Some records carry huge properties
+            String name = i % 3 == 2 ? StringUtils.repeat('x', 1000) : "a";
+            records.add(ImmutableMap.of("id", i, "name", name));
+        }
+        long small = ResultSizeGovernor.estimate(records.get(0));
+
+        ResultSizeGovernor governor = new ResultSizeGovernor(1000L);
+        Assert.assertEquals(2, governor.accept(records, records.size()));
+        Assert.assertEquals(2 * small, governor.bytes());
+
+        governor = new ResultSizeGovernor(0L);
+        Assert.assertEquals(10, governor.accept(records, records.size()));
+        Assert.assertEquals(5, governor.accept(records, 5));
+    }
+}